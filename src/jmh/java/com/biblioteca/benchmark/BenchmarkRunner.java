@@ -0,0 +1,43 @@
+package com.biblioteca.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.util.Arrays;
+
+/**
+ * Punto de entrada de los benchmarks JMH.
+ * Por defecto mide throughput y tiempo medio con el GCProfiler (tasa de asignación)
+ * y deja los resultados en target/jmh-result.json. Cualquier opción estándar de JMH
+ * pasada en -Djmh.args (p. ej. "SearchStrategyBenchmark -p tamanoCatalogo=1000")
+ * tiene prioridad sobre estos valores.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String[] argumentos = Arrays.stream(args)
+            .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+            .filter(arg -> !arg.isEmpty())
+            .toArray(String[]::new);
+
+        CommandLineOptions lineaComandos = new CommandLineOptions(argumentos);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (lineaComandos.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackageName() + ".*Benchmark");
+        }
+        Options opciones = builder
+            .mode(Mode.Throughput)
+            .mode(Mode.AverageTime)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result("target/jmh-result.json")
+            .parent(lineaComandos)
+            .build();
+
+        new Runner(opciones).run();
+    }
+}
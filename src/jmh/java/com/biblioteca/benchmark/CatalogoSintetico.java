@@ -0,0 +1,52 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Genera catálogos reproducibles (semilla fija) para los benchmarks
+final class CatalogoSintetico {
+    private static final String[] PALABRAS = {
+        "historia", "sombra", "viento", "ciudad", "noche", "mar", "tiempo", "jardín",
+        "memoria", "guerra", "silencio", "camino", "fuego", "río", "montaña", "espejo"
+    };
+    private static final String[] NOMBRES = {
+        "Gabriel", "Isabel", "Jorge", "Laura", "Mario", "Elena", "Julio", "Carmen"
+    };
+    private static final String[] APELLIDOS = {
+        "García", "Allende", "Borges", "Esquivel", "Vargas", "Poniatowska", "Cortázar", "Laforet"
+    };
+
+    private CatalogoSintetico() {
+    }
+
+    static List<Libro> generar(int tamano) {
+        Random random = new Random(42);
+        List<Libro> libros = new ArrayList<>(tamano);
+        for (int i = 0; i < tamano; i++) {
+            libros.add(crear(random, i));
+        }
+        return libros;
+    }
+
+    // Un libro suelto, para llenar catálogos grandes sin retener la lista completa
+    static Libro crear(Random random, int i) {
+        String titulo = "El " + PALABRAS[random.nextInt(PALABRAS.length)]
+            + " de la " + PALABRAS[random.nextInt(PALABRAS.length)] + " " + i;
+        String autor = NOMBRES[random.nextInt(NOMBRES.length)]
+            + " " + APELLIDOS[random.nextInt(APELLIDOS.length)];
+        return Libro.builder()
+            .id((long) i + 1)
+            .titulo(titulo)
+            .autor(autor)
+            .tipo(random.nextBoolean() ? TipoLibro.FICCION : TipoLibro.NO_FICCION)
+            .formato(random.nextBoolean() ? FormatoLibro.FISICO : FormatoLibro.DIGITAL)
+            .estado(random.nextInt(4) == 0 ? EstadoLibro.PRESTADO : EstadoLibro.DISPONIBLE)
+            .descripcion("Libro sintético " + i)
+            .build();
+    }
+}
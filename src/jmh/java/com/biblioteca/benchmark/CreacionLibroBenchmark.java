@@ -0,0 +1,49 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.builder.LibroBuilder;
+import com.biblioteca.factory.AbstractLibroFactory;
+import com.biblioteca.factory.LibroFactory;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+// Coste de crear un libro con cada patrón creacional, tal como lo usa LibroService
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreacionLibroBenchmark {
+
+    private static final String TITULO = "Cien años de soledad";
+    private static final String AUTOR = "Gabriel García Márquez";
+
+    @Benchmark
+    public Libro factoryMethod() {
+        return LibroFactory.getFactory(TipoLibro.FICCION).crearLibro(TITULO, AUTOR, FormatoLibro.FISICO);
+    }
+
+    @Benchmark
+    public Libro abstractFactoryFisico() {
+        AbstractLibroFactory factory = AbstractLibroFactory.getFactory(FormatoLibro.FISICO);
+        return factory.crearLibroFiccion(TITULO, AUTOR);
+    }
+
+    @Benchmark
+    public Libro abstractFactoryDigital() {
+        AbstractLibroFactory factory = AbstractLibroFactory.getFactory(FormatoLibro.DIGITAL);
+        return factory.crearLibroNoFiccion(TITULO, AUTOR);
+    }
+
+    @Benchmark
+    public Libro builder() {
+        return new LibroBuilder()
+            .withTitulo(TITULO)
+            .withAutor(AUTOR)
+            .withTipo(TipoLibro.FICCION)
+            .withFormato(FormatoLibro.FISICO)
+            .build();
+    }
+}
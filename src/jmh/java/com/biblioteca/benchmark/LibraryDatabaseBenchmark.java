@@ -0,0 +1,46 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.config.LibraryDatabase;
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.Libro;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Préstamos y devoluciones concurrentes sobre libros distintos; ejecutar con -t 1, -t 4, -t 8...
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LibraryDatabaseBenchmark {
+    private static final int LIBROS = 100_000;
+
+    private LibraryDatabase database;
+    private long primerId;
+
+    @Setup
+    public void preparar() {
+        database = LibraryDatabase.getInstance();
+        List<Libro> catalogo = CatalogoSintetico.generar(LIBROS);
+        primerId = database.agregarLibro(catalogo.get(0));
+        for (int i = 1; i < LIBROS; i++) {
+            database.agregarLibro(catalogo.get(i));
+        }
+    }
+
+    @Benchmark
+    public boolean prestarYDevolver() {
+        Long id = primerId + ThreadLocalRandom.current().nextInt(LIBROS);
+        return database.compareAndSetEstado(id, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO)
+            ? database.compareAndSetEstado(id, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE)
+            : database.compareAndSetEstado(id, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE);
+    }
+
+    @Benchmark
+    public boolean actualizarEstado() {
+        Long id = primerId + ThreadLocalRandom.current().nextInt(LIBROS);
+        return database.actualizarEstadoLibro(id, EstadoLibro.PRESTADO);
+    }
+}
@@ -0,0 +1,87 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.config.LibraryDatabase;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Informe de memoria por libro de cada almacén de LibraryDatabase.
+ * Cada almacén se mide en una JVM nueva (LibraryDatabase es un singleton):
+ *   mvn -Pbenchmark compile exec:exec -Dbenchmark.main=com.biblioteca.benchmark.MemoriaPorLibro -Djmh.args=1000000
+ */
+public class MemoriaPorLibro {
+    private static final List<String[]> ALMACENES = List.of(
+        new String[] {"mapa", "-Dbiblioteca.almacen=mapa"},
+        new String[] {"columnar", "-Dbiblioteca.almacen=columnar"},
+        new String[] {"columnar + texto off-heap", "-Dbiblioteca.almacen=columnar", "-Dbiblioteca.almacen.texto-offheap=true"}
+    );
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("--medir")) {
+            medir(Integer.parseInt(args[1]));
+            return;
+        }
+        int libros = args.length > 0 && !args[0].isBlank() ? Integer.parseInt(args[0].trim()) : 1_000_000;
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+
+        System.out.printf("Memoria por libro con %,d libros%n", libros);
+        System.out.printf("%-28s %14s %14s %12s%n", "Almacén", "Heap (B/libro)", "Off-heap (B)", "Total (MB)");
+        for (String[] almacen : ALMACENES) {
+            List<String> comando = new ArrayList<>(List.of(java.toString(), "-cp", System.getProperty("java.class.path")));
+            comando.addAll(List.of(almacen).subList(1, almacen.length));
+            comando.addAll(List.of(MemoriaPorLibro.class.getName(), "--medir", String.valueOf(libros)));
+            Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).start();
+            String salida = new String(proceso.getInputStream().readAllBytes()).trim();
+            if (proceso.waitFor() != 0) {
+                throw new IllegalStateException("Fallo al medir " + almacen[0] + ":\n" + salida);
+            }
+            String[] medida = salida.substring(salida.lastIndexOf('\n') + 1).split(";");
+            long heap = Long.parseLong(medida[0]);
+            long fueraDelHeap = Long.parseLong(medida[1]);
+            System.out.printf("%-28s %14.1f %14.1f %12.1f%n", almacen[0],
+                (double) heap / libros, (double) fueraDelHeap / libros, (heap + fueraDelHeap) / 1048576.0);
+        }
+    }
+
+    // Se ejecuta en la JVM hija: imprime "bytesHeap;bytesFueraDelHeap" en la última línea
+    private static void medir(int libros) {
+        LibraryDatabase database = LibraryDatabase.getInstance();
+        long heapInicial = heapUsado();
+        long directoInicial = memoriaDirecta();
+
+        Random random = new Random(42);
+        for (int i = 0; i < libros; i++) {
+            database.agregarLibro(CatalogoSintetico.crear(random, i));
+        }
+
+        long heap = heapUsado() - heapInicial;
+        long fueraDelHeap = memoriaDirecta() - directoInicial;
+        if (database.getTotalLibros() < libros) {
+            throw new IllegalStateException("Faltan libros en el almacén");
+        }
+        System.out.println(heap + ";" + fueraDelHeap);
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        long usado = Long.MAX_VALUE;
+        // Varias pasadas de GC para estabilizar la medida
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            usado = Math.min(usado, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return usado;
+    }
+
+    private static long memoriaDirecta() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+            .filter(pool -> pool.getName().equals("direct"))
+            .mapToLong(BufferPoolMXBean::getMemoryUsed)
+            .sum();
+    }
+}
@@ -0,0 +1,101 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.index.Bm25Index;
+import com.biblioteca.index.IndiceAutocompletado;
+import com.biblioteca.index.IndiceDifuso;
+import com.biblioteca.index.IndiceRelevancia;
+import com.biblioteca.index.Normalizador;
+import com.biblioteca.index.TrigramIndex;
+import com.biblioteca.model.Libro;
+import com.biblioteca.strategy.ConsultaLibros;
+import com.biblioteca.strategy.SearchByAuthor;
+import com.biblioteca.strategy.SearchByTipo;
+import com.biblioteca.strategy.SearchByTitle;
+import com.biblioteca.strategy.SearchStrategy;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Estrategias de búsqueda en memoria sobre catálogos de distinto tamaño
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchStrategyBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int tamanoCatalogo;
+
+    private List<Libro> catalogo;
+    private TrigramIndex indiceTitulos;
+    private IndiceDifuso indiceDifuso;
+    private Bm25Index indiceRelevancia;
+    private IndiceAutocompletado indiceAutocompletado;
+
+    private final SearchStrategy porTitulo = new SearchByTitle();
+    private final SearchStrategy porAutor = new SearchByAuthor();
+    private final SearchStrategy porTipo = new SearchByTipo();
+    private final Predicate<Libro> consultaCompilada =
+        ConsultaLibros.de(null, "borges", "ficcion", null, "disponible").compilar();
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        catalogo = CatalogoSintetico.generar(tamanoCatalogo);
+        indiceTitulos = new TrigramIndex();
+        catalogo.forEach(libro -> indiceTitulos.indexar(libro.getId(), libro.getTitulo()));
+        indiceDifuso = new IndiceDifuso(2);
+        catalogo.forEach(indiceDifuso::indexar);
+        indiceRelevancia = new Bm25Index();
+        catalogo.forEach(libro -> indiceRelevancia.indexar(libro.getId(), IndiceRelevancia.terminos(libro)));
+        indiceAutocompletado = new IndiceAutocompletado(10);
+        catalogo.forEach(indiceAutocompletado::indexar);
+    }
+
+    @Benchmark
+    public Long buscarPorTitulo() {
+        return porTitulo.buscar(Flux.fromIterable(catalogo), "Sombra de la noche").count().block();
+    }
+
+    @Benchmark
+    public Long buscarPorAutor() {
+        return porAutor.buscar(Flux.fromIterable(catalogo), "borges").count().block();
+    }
+
+    @Benchmark
+    public Long buscarPorTipo() {
+        return porTipo.buscar(Flux.fromIterable(catalogo), "no_ficcion").count().block();
+    }
+
+    // Referencia: la misma búsqueda por título resuelta con el índice de trigramas
+    @Benchmark
+    public int buscarPorTituloIndexado() {
+        return indiceTitulos.buscar("Sombra de la noche").size();
+    }
+
+    // Búsqueda con erratas ("borjes" -> "borges") sobre el árbol BK del vocabulario
+    @Benchmark
+    public int buscarDifusoIndexado() {
+        return indiceDifuso.buscar("borjes").size();
+    }
+
+    // Los 10 más relevantes con BM25: el montículo acotado no ordena todas las coincidencias
+    @Benchmark
+    public int buscarRelevanciaTop10() {
+        return indiceRelevancia.buscar(Normalizador.terminos("sombra noche"), 10, 0).size();
+    }
+
+    // Una pulsación de teclado: bajar por el trie y copiar las sugerencias precalculadas del nodo
+    @Benchmark
+    public int autocompletar() {
+        return indiceAutocompletado.completar("som", 10).size();
+    }
+
+    // Tres criterios en un único predicado compilado: igualdades primero, subcadena al final
+    @Benchmark
+    public Long consultaVariosCriterios() {
+        return Flux.fromIterable(catalogo).filter(consultaCompilada).count().block();
+    }
+}
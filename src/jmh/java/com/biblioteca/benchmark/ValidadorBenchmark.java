@@ -0,0 +1,97 @@
+package com.biblioteca.benchmark;
+
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import com.biblioteca.validator.MotorValidacion;
+import com.biblioteca.validator.ResultadoValidacion;
+import com.biblioteca.validator.Validador;
+import com.biblioteca.validator.ValidationException;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cadena ValidadorTitulo -> ValidadorAutor -> ValidadorCamposObligatorios:
+// validar() lanza la primera violación, evaluar() las acumula sin excepciones
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidadorBenchmark {
+
+    private MotorValidacion motor;
+    private Validador cadena;
+    private List<Libro> loteMixto;
+    private Libro libroValido;
+    private Libro libroTituloVacio;
+    private Libro libroAutorInvalido;
+
+    @Setup
+    public void preparar() {
+        motor = MotorValidacion.porDefecto();
+        cadena = motor.getCadena();
+
+        libroValido = crear("Cien años de soledad", "Gabriel García Márquez");
+        libroTituloVacio = crear("", "Gabriel García Márquez");
+        libroAutorInvalido = crear("Cien años de soledad", "G4briel_García");
+
+        // Una de cada cuatro filas inválida, como una integración con datos sucios
+        loteMixto = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            loteMixto.add(i % 4 == 0 ? libroAutorInvalido : libroValido);
+        }
+    }
+
+    @Benchmark
+    public boolean validarLibroValido() {
+        return validar(libroValido);
+    }
+
+    // Falla en el primer eslabón
+    @Benchmark
+    public boolean validarTituloVacio() {
+        return validar(libroTituloVacio);
+    }
+
+    // Falla en el segundo eslabón, tras evaluar la expresión regular del autor
+    @Benchmark
+    public boolean validarAutorInvalido() {
+        return validar(libroAutorInvalido);
+    }
+
+    @Benchmark
+    public ResultadoValidacion evaluarLibroValido() {
+        return motor.evaluar(libroValido);
+    }
+
+    @Benchmark
+    public ResultadoValidacion evaluarAutorInvalido() {
+        return motor.evaluar(libroAutorInvalido);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public List<ResultadoValidacion> validarTodosLoteMixto() {
+        return motor.validarTodos(loteMixto);
+    }
+
+    private boolean validar(Libro libro) {
+        try {
+            cadena.validar(libro);
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+
+    private static Libro crear(String titulo, String autor) {
+        return Libro.builder()
+            .titulo(titulo)
+            .autor(autor)
+            .tipo(TipoLibro.FICCION)
+            .formato(FormatoLibro.FISICO)
+            .build();
+    }
+}
@@ -0,0 +1,239 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static com.biblioteca.config.CodificacionEnum.*;
+
+/**
+ * Almacén columnar (struct-of-arrays) para catálogos de millones de libros.
+ * Cada columna es un array primitivo paginado indexado por id - 1:
+ * tipo/formato/estado como ordinales en un byte, el autor como código de
+ * diccionario y título/descripción como referencias a una ArenaTexto.
+ * No existe un objeto Libro por libro: obtener() materializa una copia.
+ * El estado se cambia con CAS sobre el byte (VarHandle) y su escritura con
+ * release publica el resto de columnas del libro.
+ */
+final class AlmacenColumnar implements AlmacenLibros {
+    private static final int BITS_PAGINA = 16;
+    private static final int TAMANO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANO_PAGINA - 1;
+    private static final VarHandle ESTADO = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private static final class Pagina {
+        final byte[] tipo = new byte[TAMANO_PAGINA];
+        final byte[] formato = new byte[TAMANO_PAGINA];
+        final byte[] estado = new byte[TAMANO_PAGINA];
+        final int[] autor = new int[TAMANO_PAGINA];
+        final long[] titulo = new long[TAMANO_PAGINA];
+        final long[] descripcion = new long[TAMANO_PAGINA];
+    }
+
+    private final ContadoresCatalogo contadores;
+    private final DiccionarioTextos autores = new DiccionarioTextos();
+    private final ArenaTexto textos;
+    private final LongAdder tamano = new LongAdder();
+    private final AtomicLong limite = new AtomicLong();
+    private volatile Pagina[] paginas = new Pagina[16];
+
+    AlmacenColumnar(ContadoresCatalogo contadores, boolean textoFueraDelHeap) {
+        this.contadores = contadores;
+        this.textos = new ArenaTexto(textoFueraDelHeap);
+    }
+
+    @Override
+    public void guardar(Long id, Libro libro) {
+        long posicion = posicion(id);
+        Pagina pagina = pagina(posicion, true);
+        int i = (int) (posicion & MASCARA_PAGINA);
+
+        pagina.tipo[i] = codigo(libro.getTipo());
+        pagina.formato[i] = codigo(libro.getFormato());
+        pagina.autor[i] = autores.codificar(libro.getAutor());
+        pagina.titulo[i] = textos.guardar(libro.getTitulo());
+        pagina.descripcion[i] = textos.guardar(libro.getDescripcionOriginal());
+        ESTADO.setRelease(pagina.estado, i, codigoEstado(libro.getEstado()));
+
+        tamano.increment();
+        limite.accumulateAndGet(posicion + 1, Math::max);
+        contadores.registrar(libro.getTipo(), libro.getFormato(), libro.getEstado());
+    }
+
+    @Override
+    public Libro obtener(Long id) {
+        if (id == null || id < 1) {
+            return null;
+        }
+        long posicion = id - 1;
+        Pagina pagina = pagina(posicion, false);
+        if (pagina == null) {
+            return null;
+        }
+        return materializar(pagina, (int) (posicion & MASCARA_PAGINA), id);
+    }
+
+    @Override
+    public boolean actualizarEstado(Long id, EstadoLibro nuevoEstado) {
+        Pagina pagina = paginaExistente(id);
+        if (pagina == null) {
+            return false;
+        }
+        int i = (int) ((id - 1) & MASCARA_PAGINA);
+        byte nuevo = codigoEstado(nuevoEstado);
+        while (true) {
+            byte actual = (byte) ESTADO.getAcquire(pagina.estado, i);
+            if (actual == HUECO) {
+                return false;
+            }
+            if (actual == nuevo) {
+                return true;
+            }
+            if (ESTADO.compareAndSet(pagina.estado, i, actual, nuevo)) {
+                registrarCambio(pagina, i, actual, nuevo);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        Pagina pagina = paginaExistente(id);
+        if (pagina == null) {
+            return false;
+        }
+        int i = (int) ((id - 1) & MASCARA_PAGINA);
+        byte codigoEsperado = codigoEstado(esperado);
+        byte codigoNuevo = codigoEstado(nuevo);
+        if (!ESTADO.compareAndSet(pagina.estado, i, codigoEsperado, codigoNuevo)) {
+            return false;
+        }
+        registrarCambio(pagina, i, codigoEsperado, codigoNuevo);
+        return true;
+    }
+
+    /**
+     * Recorre solo las columnas de un byte, sin decodificar textos hasta que
+     * el libro coincide con todos los filtros.
+     */
+    @Override
+    public List<Libro> filtrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        byte codigoTipo = codigo(tipo);
+        byte codigoFormato = codigo(formato);
+        byte codigoEstado = estado == null ? HUECO : codigoEstado(estado);
+        List<Libro> resultado = new ArrayList<>();
+        recorrerPosiciones((pagina, i, id) -> {
+            if ((tipo == null || pagina.tipo[i] == codigoTipo)
+                    && (formato == null || pagina.formato[i] == codigoFormato)
+                    && (estado == null || (byte) ESTADO.getAcquire(pagina.estado, i) == codigoEstado)) {
+                Libro libro = materializar(pagina, i, id);
+                if (libro != null) {
+                    resultado.add(libro);
+                }
+            }
+        });
+        return resultado;
+    }
+
+    @Override
+    public void recorrer(Consumer<Libro> accion) {
+        recorrerPosiciones((pagina, i, id) -> {
+            Libro libro = materializar(pagina, i, id);
+            if (libro != null) {
+                accion.accept(libro);
+            }
+        });
+    }
+
+    @Override
+    public int tamano() {
+        return tamano.intValue();
+    }
+
+    @Override
+    public String nombre() {
+        return textos.isFueraDelHeap() ? "columnar (texto fuera del heap)" : "columnar";
+    }
+
+    private Libro materializar(Pagina pagina, int i, long id) {
+        byte estado = (byte) ESTADO.getAcquire(pagina.estado, i);
+        if (estado == HUECO) {
+            return null;
+        }
+        return Libro.builder()
+            .id(id)
+            .titulo(textos.leer(pagina.titulo[i]))
+            .autor(autores.decodificar(pagina.autor[i]))
+            .tipo(tipo(pagina.tipo[i]))
+            .formato(formato(pagina.formato[i]))
+            .estado(estado(estado))
+            .descripcion(textos.leer(pagina.descripcion[i]))
+            .build();
+    }
+
+    private void registrarCambio(Pagina pagina, int i, byte anterior, byte nuevo) {
+        contadores.cambiarEstado(
+            tipo(pagina.tipo[i]),
+            formato(pagina.formato[i]),
+            estado(anterior),
+            estado(nuevo));
+    }
+
+    private interface VisitaPosicion {
+        void visitar(Pagina pagina, int indice, long id);
+    }
+
+    private void recorrerPosiciones(VisitaPosicion visita) {
+        long fin = limite.get();
+        Pagina[] actuales = paginas;
+        for (long posicion = 0; posicion < fin; posicion += TAMANO_PAGINA) {
+            Pagina pagina = actuales[(int) (posicion >>> BITS_PAGINA)];
+            if (pagina == null) {
+                continue;
+            }
+            int hasta = (int) Math.min(TAMANO_PAGINA, fin - posicion);
+            for (int i = 0; i < hasta; i++) {
+                visita.visitar(pagina, i, posicion + i + 1);
+            }
+        }
+    }
+
+    private Pagina paginaExistente(Long id) {
+        return id == null || id < 1 ? null : pagina(id - 1, false);
+    }
+
+    private Pagina pagina(long posicion, boolean crear) {
+        int indice = (int) (posicion >>> BITS_PAGINA);
+        Pagina[] actuales = paginas;
+        if (indice < actuales.length && actuales[indice] != null) {
+            return actuales[indice];
+        }
+        if (!crear) {
+            return null;
+        }
+        synchronized (this) {
+            actuales = paginas;
+            if (indice >= actuales.length) {
+                actuales = Arrays.copyOf(actuales, Math.max(indice + 1, actuales.length * 2));
+            }
+            if (actuales[indice] == null) {
+                actuales[indice] = new Pagina();
+            }
+            paginas = actuales;
+            return actuales[indice];
+        }
+    }
+
+    private static long posicion(Long id) {
+        if (id == null || id < 1 || id - 1 > (long) Integer.MAX_VALUE * TAMANO_PAGINA) {
+            throw new IllegalArgumentException("ID fuera de rango para el almacén columnar: " + id);
+        }
+        return id - 1;
+    }
+}
@@ -0,0 +1,90 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Decorador que registra en el DiarioEscritura cada cambio antes de aplicarlo al almacén.
+ * Bajo un cerrojo por franja de IDs se comprueba el cambio contra la memoria, se encola
+ * en el diario, se espera a que sea duradero (solo en modo SINCRONA) y se aplica: si el
+ * diario falla el cambio no llega a la memoria y nadie lo ha podido leer. El orden en el
+ * diario coincide con el orden en memoria para cada libro; los libros de otras franjas no
+ * se bloquean y siguen agrupándose en el mismo fsync.
+ */
+final class AlmacenConDiario implements AlmacenLibros {
+    private static final int FRANJAS = 1024;
+
+    private final AlmacenLibros almacen;
+    private final DiarioEscritura diario;
+    private final Object[] franjas = new Object[FRANJAS];
+
+    AlmacenConDiario(AlmacenLibros almacen, DiarioEscritura diario) {
+        this.almacen = almacen;
+        this.diario = diario;
+        for (int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Object();
+        }
+    }
+
+    @Override
+    public void guardar(Long id, Libro libro) {
+        synchronized (franja(id)) {
+            diario.esperar(diario.registrarAlta(id, libro));
+            almacen.guardar(id, libro);
+        }
+    }
+
+    @Override
+    public Libro obtener(Long id) {
+        return almacen.obtener(id);
+    }
+
+    @Override
+    public boolean actualizarEstado(Long id, EstadoLibro nuevoEstado) {
+        synchronized (franja(id)) {
+            if (almacen.obtener(id) == null) {
+                return false;
+            }
+            diario.esperar(diario.registrarEstado(id, nuevoEstado));
+            return almacen.actualizarEstado(id, nuevoEstado);
+        }
+    }
+
+    // Todas las escrituras pasan por la franja: lo comprobado no cambia antes de aplicarlo
+    @Override
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        synchronized (franja(id)) {
+            Libro actual = almacen.obtener(id);
+            if (actual == null || actual.getEstado() != esperado) {
+                return false;
+            }
+            diario.esperar(diario.registrarEstado(id, nuevo));
+            return almacen.compareAndSetEstado(id, esperado, nuevo);
+        }
+    }
+
+    @Override
+    public List<Libro> filtrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        return almacen.filtrar(tipo, formato, estado);
+    }
+
+    @Override
+    public void recorrer(Consumer<Libro> accion) {
+        almacen.recorrer(accion);
+    }
+
+    @Override
+    public int tamano() {
+        return almacen.tamano();
+    }
+
+    @Override
+    public String nombre() {
+        return almacen.nombre() + " con diario";
+    }
+
+    private Object franja(Long id) {
+        return franjas[(int) (id & (FRANJAS - 1))];
+    }
+}
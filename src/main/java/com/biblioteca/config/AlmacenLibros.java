@@ -0,0 +1,32 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Motor de almacenamiento detrás de LibraryDatabase.
+ * Cada implementación mantiene también los contadores del catálogo, ya que es
+ * la única que sabe cuándo un cambio de estado se aplicó de verdad.
+ */
+interface AlmacenLibros {
+
+    // Guarda el libro con el ID ya asignado por LibraryDatabase
+    void guardar(Long id, Libro libro);
+
+    // Devuelve el libro o null si no existe
+    Libro obtener(Long id);
+
+    boolean actualizarEstado(Long id, EstadoLibro nuevoEstado);
+
+    boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo);
+
+    // Filtros por enum; los parámetros null no filtran
+    List<Libro> filtrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado);
+
+    void recorrer(Consumer<Libro> accion);
+
+    int tamano();
+
+    String nombre();
+}
@@ -0,0 +1,105 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Almacén por defecto: un objeto Libro por libro en un ConcurrentHashMap,
+ * con índices secundarios por enum para los filtros.
+ */
+final class AlmacenMapa implements AlmacenLibros {
+    private final Map<Long, Libro> libros = new ConcurrentHashMap<>();
+    private final IndicesSecundarios indices = new IndicesSecundarios();
+    private final ContadoresCatalogo contadores;
+
+    AlmacenMapa(ContadoresCatalogo contadores) {
+        this.contadores = contadores;
+    }
+
+    @Override
+    public void guardar(Long id, Libro libro) {
+        Libro almacenado = libro.toBuilder().id(id).build();
+        libros.put(id, almacenado);
+        indices.registrar(almacenado);
+        contadores.registrar(almacenado.getTipo(), almacenado.getFormato(), almacenado.getEstado());
+    }
+
+    @Override
+    public Libro obtener(Long id) {
+        return libros.get(id);
+    }
+
+    /**
+     * computeIfPresent es atómico solo para esa clave: escrituras sobre libros
+     * distintos no se bloquean entre sí. El índice y los contadores se mueven
+     * dentro de la misma sección, así dos cambios seguidos del mismo libro no
+     * pueden aplicarse al índice en orden inverso.
+     */
+    @Override
+    public boolean actualizarEstado(Long id, EstadoLibro nuevoEstado) {
+        // Libro se trata como inmutable dentro del mapa: se reemplaza por una copia
+        return libros.computeIfPresent(id, (clave, libro) -> cambiarEstado(libro, nuevoEstado)) != null;
+    }
+
+    @Override
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        boolean[] aplicado = new boolean[1];
+        libros.computeIfPresent(id, (clave, libro) -> {
+            if (libro.getEstado() != esperado) {
+                return libro;
+            }
+            aplicado[0] = true;
+            return cambiarEstado(libro, nuevo);
+        });
+        return aplicado[0];
+    }
+
+    @Override
+    public List<Libro> filtrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        Set<Long> ids = indices.intersectar(tipo, formato, estado);
+        if (ids == null) {
+            return new ArrayList<>(libros.values());
+        }
+        // Se vuelve a comprobar el libro actual porque un cambio de estado concurrente
+        // puede dejar el ID un instante en el conjunto anterior
+        List<Libro> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Libro libro = libros.get(id);
+            if (libro != null
+                    && (tipo == null || libro.getTipo() == tipo)
+                    && (formato == null || libro.getFormato() == formato)
+                    && (estado == null || libro.getEstado() == estado)) {
+                resultado.add(libro);
+            }
+        }
+        return resultado;
+    }
+
+    @Override
+    public void recorrer(Consumer<Libro> accion) {
+        libros.values().forEach(accion);
+    }
+
+    @Override
+    public int tamano() {
+        return libros.size();
+    }
+
+    @Override
+    public String nombre() {
+        return "mapa";
+    }
+
+    // Se invoca dentro de computeIfPresent, con la clave bloqueada
+    private Libro cambiarEstado(Libro libro, EstadoLibro nuevo) {
+        EstadoLibro anterior = libro.getEstado();
+        if (anterior == nuevo) {
+            return libro;
+        }
+        indices.cambiarEstado(libro.getId(), anterior, nuevo);
+        contadores.cambiarEstado(libro.getTipo(), libro.getFormato(), anterior, nuevo);
+        return libro.toBuilder().estado(nuevo).build();
+    }
+}
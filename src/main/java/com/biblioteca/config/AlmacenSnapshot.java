@@ -0,0 +1,401 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static com.biblioteca.config.CodificacionEnum.*;
+import static com.biblioteca.config.FormatoSnapshot.*;
+
+/**
+ * Almacén que sirve las lecturas directamente desde un snapshot mapeado con
+ * FileChannel.map: abrirlo solo lee la cabecera, así que el arranque no
+ * depende del tamaño del catálogo.
+ * El fichero es de solo lectura; las escrituras van a una capa en memoria:
+ * los libros que no están en el snapshot (IDs posteriores o huecos) a otro
+ * AlmacenLibros y los cambios de estado de libros mapeados a un mapa de
+ * estados con CAS por clave.
+ * Mientras verificar() no ha confirmado el fichero entero, cada lectura comprueba
+ * el CRC de su registro: un registro corrupto se trata como inexistente y se
+ * cuenta, en lugar de lanzar una excepción o devolver datos erróneos.
+ * Si la verificación del contenido falla, descartar() deja de servir el
+ * fichero y el almacén queda reducido a la capa de libros nuevos.
+ */
+final class AlmacenSnapshot implements AlmacenLibros {
+    private final Path ruta;
+    private final long registros;
+    private final long presentes;
+    private final long siguienteId;
+    private final MappedByteBuffer registrosMapeados;
+    private final MappedByteBuffer[] segmentosTexto;
+    private final MappedByteBuffer autoresMapeados;
+    private final int[] crcEsperados;
+    // Caché de autores decodificados; una carrera solo repite la decodificación
+    private final String[] autores;
+
+    private final Map<Long, Byte> estados = new ConcurrentHashMap<>();
+    private final AlmacenLibros nuevos;
+    private final ContadoresCatalogo contadores;
+    private volatile Boolean integro;
+    private volatile boolean descartado;
+    private final AtomicLong registrosCorruptos = new AtomicLong();
+
+    private AlmacenSnapshot(Path ruta, FileChannel canal, ByteBuffer cabecera, int tamanoCabecera,
+                            AlmacenLibros nuevos, ContadoresCatalogo contadores) throws IOException {
+        this.ruta = ruta;
+        this.nuevos = nuevos;
+        this.contadores = contadores;
+        this.siguienteId = cabecera.getLong(POS_SIGUIENTE_ID);
+        this.registros = cabecera.getLong(POS_REGISTROS);
+        this.presentes = cabecera.getLong(POS_PRESENTES);
+        long bytesTexto = cabecera.getLong(POS_BYTES_TEXTO);
+        int numAutores = cabecera.getInt(POS_AUTORES);
+        this.crcEsperados = new int[] {
+            cabecera.getInt(POS_CRC_REGISTROS), cabecera.getInt(POS_CRC_TEXTOS), cabecera.getInt(POS_CRC_AUTORES)
+        };
+
+        long inicioTextos = tamanoCabecera + registros * TAMANO_REGISTRO;
+        long inicioAutores = inicioTextos + bytesTexto;
+        if (canal.size() != inicioAutores + (long) numAutores * Long.BYTES) {
+            throw new IOException("Tamaño de snapshot inconsistente con la cabecera");
+        }
+        this.registrosMapeados = canal.map(FileChannel.MapMode.READ_ONLY, tamanoCabecera, registros * TAMANO_REGISTRO);
+        int numSegmentos = (int) ((bytesTexto + TAMANO_SEGMENTO_TEXTO - 1) / TAMANO_SEGMENTO_TEXTO);
+        this.segmentosTexto = new MappedByteBuffer[numSegmentos];
+        for (int i = 0; i < numSegmentos; i++) {
+            long inicio = i * TAMANO_SEGMENTO_TEXTO;
+            segmentosTexto[i] = canal.map(FileChannel.MapMode.READ_ONLY, inicioTextos + inicio,
+                Math.min(TAMANO_SEGMENTO_TEXTO, bytesTexto - inicio));
+        }
+        this.autoresMapeados = canal.map(FileChannel.MapMode.READ_ONLY, inicioAutores, (long) numAutores * Long.BYTES);
+        this.autores = new String[numAutores];
+
+        long[] valores = new long[ContadoresCatalogo.TAMANO];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = cabecera.getLong(POS_CONTADORES + i * Long.BYTES);
+        }
+        contadores.restaurar(valores);
+    }
+
+    /**
+     * Abre y mapea un snapshot validando magia, versión y CRC de la cabecera.
+     * El CRC del contenido se comprueba aparte con verificar().
+     */
+    static AlmacenSnapshot abrir(Path ruta, AlmacenLibros nuevos, ContadoresCatalogo contadores) throws IOException {
+        try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+            ByteBuffer fija = leer(canal, 0, TAMANO_CABECERA_FIJA + Integer.BYTES);
+            if (fija.getInt(0) != MAGIA) {
+                throw new IOException("No es un snapshot de biblioteca: " + ruta);
+            }
+            if (fija.getInt(4) != VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + fija.getInt(4));
+            }
+            int numContadores = fija.getInt(POS_NUM_CONTADORES);
+            if (numContadores != ContadoresCatalogo.TAMANO) {
+                throw new IOException("El snapshot no corresponde a los enums actuales del catálogo");
+            }
+            int tamanoCabecera = tamanoCabecera(numContadores);
+            ByteBuffer cabecera = leer(canal, 0, tamanoCabecera);
+            int posicionCrc = posicionCrcCabecera(numContadores);
+            CRC32C crc = new CRC32C();
+            crc.update(cabecera.array(), 0, posicionCrc);
+            if ((int) crc.getValue() != cabecera.getInt(posicionCrc)) {
+                throw new IOException("CRC de cabecera incorrecto en " + ruta);
+            }
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new AlmacenSnapshot(ruta, canal, cabecera, tamanoCabecera, nuevos, contadores);
+        }
+    }
+
+    /**
+     * Recorre todo el contenido mapeado y compara los CRC32C con la cabecera.
+     * Es O(tamaño del fichero), por eso LibraryDatabase lo lanza en segundo plano.
+     */
+    boolean verificar() {
+        CRC32C crc = new CRC32C();
+        crc.update(registrosMapeados.duplicate().clear());
+        boolean correcto = (int) crc.getValue() == crcEsperados[0];
+
+        crc.reset();
+        for (MappedByteBuffer segmento : segmentosTexto) {
+            crc.update(segmento.duplicate().clear());
+        }
+        correcto &= (int) crc.getValue() == crcEsperados[1];
+
+        crc.reset();
+        crc.update(autoresMapeados.duplicate().clear());
+        correcto &= (int) crc.getValue() == crcEsperados[2];
+
+        integro = correcto;
+        return correcto;
+    }
+
+    // null mientras la verificación no ha terminado
+    Boolean getIntegro() {
+        return integro;
+    }
+
+    /**
+     * Tras un CRC incorrecto: el contenido mapeado deja de leerse (un código de enum
+     * corrupto podría incluso hacer fallar materializar) y los contadores se recalculan
+     * con los libros de la capa nueva.
+     */
+    synchronized void descartar() {
+        if (descartado) {
+            return;
+        }
+        descartado = true;
+        estados.clear();
+        contadores.restaurar(new long[ContadoresCatalogo.TAMANO]);
+        nuevos.recorrer(libro -> contadores.registrar(libro.getTipo(), libro.getFormato(), libro.getEstado()));
+    }
+
+    // Registros que no superaron su CRC al leerlos antes de terminar la verificación
+    long getRegistrosCorruptos() {
+        return registrosCorruptos.get();
+    }
+
+    boolean isDescartado() {
+        return descartado;
+    }
+
+    // Solo se puede volver a escribir un snapshot con datos verificados o sin el contenido descartado
+    boolean puedePersistirse() {
+        return descartado || Boolean.TRUE.equals(integro);
+    }
+
+    long getSiguienteId() {
+        return siguienteId;
+    }
+
+    @Override
+    public void guardar(Long id, Libro libro) {
+        if (enSnapshot(id)) {
+            throw new IllegalArgumentException("El ID " + id + " pertenece al snapshot y es de solo lectura");
+        }
+        nuevos.guardar(id, libro);
+    }
+
+    @Override
+    public Libro obtener(Long id) {
+        if (id == null || id < 1) {
+            return null;
+        }
+        return enSnapshot(id) ? materializar(id) : nuevos.obtener(id);
+    }
+
+    @Override
+    public boolean actualizarEstado(Long id, EstadoLibro nuevoEstado) {
+        if (id == null || id < 1) {
+            return false;
+        }
+        if (!enSnapshot(id)) {
+            return nuevos.actualizarEstado(id, nuevoEstado);
+        }
+        if (!verificado() && materializar(id) == null) {
+            return false;
+        }
+        byte base = estadoBase(id);
+        byte nuevo = codigoEstado(nuevoEstado);
+        while (true) {
+            Byte actual = estados.get(id);
+            byte codigoActual = actual == null ? base : actual;
+            if (codigoActual == nuevo) {
+                return true;
+            }
+            if (actual == null ? estados.putIfAbsent(id, nuevo) == null : estados.replace(id, actual, nuevo)) {
+                registrarCambio(id, codigoActual, nuevo);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        if (id == null || id < 1) {
+            return false;
+        }
+        if (!enSnapshot(id)) {
+            return nuevos.compareAndSetEstado(id, esperado, nuevo);
+        }
+        if (!verificado() && materializar(id) == null) {
+            return false;
+        }
+        byte base = estadoBase(id);
+        byte codigoEsperado = codigoEstado(esperado);
+        byte codigoNuevo = codigoEstado(nuevo);
+        while (true) {
+            Byte actual = estados.get(id);
+            byte codigoActual = actual == null ? base : actual;
+            if (codigoActual != codigoEsperado) {
+                return false;
+            }
+            if (actual == null ? estados.putIfAbsent(id, codigoNuevo) == null : estados.replace(id, actual, codigoNuevo)) {
+                registrarCambio(id, codigoActual, codigoNuevo);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public List<Libro> filtrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        byte codigoTipo = codigo(tipo);
+        byte codigoFormato = codigo(formato);
+        byte codigoEstado = estado == null ? HUECO : codigoEstado(estado);
+        List<Libro> resultado = new ArrayList<>();
+        for (long id = 1; id <= registrosServidos(); id++) {
+            int base = posicion(id);
+            byte actual = estadoActual(id);
+            if (actual != HUECO
+                    && (tipo == null || registrosMapeados.get(base + REG_TIPO) == codigoTipo)
+                    && (formato == null || registrosMapeados.get(base + REG_FORMATO) == codigoFormato)
+                    && (estado == null || actual == codigoEstado)) {
+                Libro libro = materializar(id);
+                if (libro != null) {
+                    resultado.add(libro);
+                }
+            }
+        }
+        resultado.addAll(nuevos.filtrar(tipo, formato, estado));
+        return resultado;
+    }
+
+    @Override
+    public void recorrer(Consumer<Libro> accion) {
+        for (long id = 1; id <= registrosServidos(); id++) {
+            Libro libro = materializar(id);
+            if (libro != null) {
+                accion.accept(libro);
+            }
+        }
+        nuevos.recorrer(accion);
+    }
+
+    @Override
+    public int tamano() {
+        return (descartado ? 0 : (int) presentes) + nuevos.tamano();
+    }
+
+    @Override
+    public String nombre() {
+        return descartado ? nuevos.nombre() : "snapshot " + ruta.getFileName() + " + " + nuevos.nombre();
+    }
+
+    private Libro materializar(long id) {
+        byte estado = estadoActual(id);
+        if (estado == HUECO) {
+            return null;
+        }
+        int base = posicion(id);
+        try {
+            int codigoAutor = registrosMapeados.getInt(base + REG_AUTOR);
+            String titulo = texto(registrosMapeados.getLong(base + REG_TITULO));
+            String autor = codigoAutor == DiccionarioTextos.NULO ? null : autor(codigoAutor);
+            String descripcion = texto(registrosMapeados.getLong(base + REG_DESCRIPCION));
+            if (!verificado() && crcRegistro(registrosMapeados.slice(base, REG_CRC), titulo, autor, descripcion)
+                    != registrosMapeados.getInt(base + REG_CRC)) {
+                return corrupto(id);
+            }
+            return Libro.builder()
+                .id(id)
+                .titulo(titulo)
+                .autor(autor)
+                .tipo(tipo(registrosMapeados.get(base + REG_TIPO)))
+                .formato(formato(registrosMapeados.get(base + REG_FORMATO)))
+                .estado(estado(estado))
+                .descripcion(descripcion)
+                .build();
+        } catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+            // Referencia de texto o código de autor fuera de rango: solo puede ser corrupción
+            return corrupto(id);
+        }
+    }
+
+    private boolean verificado() {
+        return Boolean.TRUE.equals(integro);
+    }
+
+    private Libro corrupto(long id) {
+        if (registrosCorruptos.getAndIncrement() == 0) {
+            System.err.println("✗ Registro corrupto en el snapshot " + ruta + " (id " + id
+                + "): se omite hasta que termine la verificación");
+        }
+        return null;
+    }
+
+    private String autor(int codigo) {
+        String autor = autores[codigo];
+        if (autor == null) {
+            autor = texto(autoresMapeados.getLong(codigo * Long.BYTES));
+            autores[codigo] = autor;
+        }
+        return autor;
+    }
+
+    private String texto(long referencia) {
+        if (referencia == TEXTO_NULO) {
+            return null;
+        }
+        long desplazamiento = desplazamiento(referencia);
+        byte[] bytes = new byte[longitud(referencia)];
+        segmentosTexto[(int) (desplazamiento / TAMANO_SEGMENTO_TEXTO)]
+            .get((int) (desplazamiento % TAMANO_SEGMENTO_TEXTO), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean enSnapshot(long id) {
+        return !descartado && id <= registros && estadoBase(id) != HUECO;
+    }
+
+    private long registrosServidos() {
+        return descartado ? 0 : registros;
+    }
+
+    private byte estadoActual(long id) {
+        byte base = estadoBase(id);
+        if (base == HUECO) {
+            return HUECO;
+        }
+        Byte cambiado = estados.get(id);
+        return cambiado == null ? base : cambiado;
+    }
+
+    private byte estadoBase(long id) {
+        return registrosMapeados.get(posicion(id) + REG_ESTADO);
+    }
+
+    private void registrarCambio(long id, byte anterior, byte nuevo) {
+        int base = posicion(id);
+        contadores.cambiarEstado(
+            tipo(registrosMapeados.get(base + REG_TIPO)),
+            formato(registrosMapeados.get(base + REG_FORMATO)),
+            estado(anterior),
+            estado(nuevo));
+    }
+
+    private static int posicion(long id) {
+        return (int) ((id - 1) * TAMANO_REGISTRO);
+    }
+
+    private static ByteBuffer leer(FileChannel canal, long posicion, int tamano) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(tamano);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("Snapshot truncado");
+            }
+        }
+        return buffer;
+    }
+}
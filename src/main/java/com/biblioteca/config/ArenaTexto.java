@@ -0,0 +1,86 @@
+package com.biblioteca.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Arena de texto UTF-8 en bloques de 1 MiB, dentro o fuera del heap.
+ * Cada texto se identifica con una referencia long (posición << 21 | longitud),
+ * de modo que el almacén columnar no mantiene un objeto String por libro.
+ * Solo se añade: los textos no se reescriben ni se liberan.
+ */
+final class ArenaTexto {
+    static final long NULO = -1L;
+
+    private static final int BITS_BLOQUE = 20;
+    private static final int TAMANO_BLOQUE = 1 << BITS_BLOQUE;
+    private static final int BITS_LONGITUD = BITS_BLOQUE + 1;
+    private static final long MASCARA_LONGITUD = (1L << BITS_LONGITUD) - 1;
+
+    private final boolean fueraDelHeap;
+    private volatile ByteBuffer[] bloques = new ByteBuffer[16];
+    private int bloqueActual = -1;
+    private int desplazamiento = TAMANO_BLOQUE;
+
+    ArenaTexto(boolean fueraDelHeap) {
+        this.fueraDelHeap = fueraDelHeap;
+    }
+
+    long guardar(String texto) {
+        if (texto == null) {
+            return NULO;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TAMANO_BLOQUE) {
+            throw new IllegalArgumentException("Texto demasiado largo para el almacén columnar: " + bytes.length + " bytes");
+        }
+        synchronized (this) {
+            if (desplazamiento + bytes.length > TAMANO_BLOQUE) {
+                nuevoBloque();
+            }
+            bloques[bloqueActual].put(desplazamiento, bytes);
+            long posicion = ((long) bloqueActual << BITS_BLOQUE) | desplazamiento;
+            desplazamiento += bytes.length;
+            return (posicion << BITS_LONGITUD) | bytes.length;
+        }
+    }
+
+    String leer(long referencia) {
+        if (referencia == NULO) {
+            return null;
+        }
+        int longitud = (int) (referencia & MASCARA_LONGITUD);
+        long posicion = referencia >>> BITS_LONGITUD;
+        ByteBuffer bloque = bloques[(int) (posicion >>> BITS_BLOQUE)];
+        int inicio = (int) (posicion & (TAMANO_BLOQUE - 1));
+        if (bloque.hasArray()) {
+            return new String(bloque.array(), inicio, longitud, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[longitud];
+        bloque.get(inicio, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    synchronized long bytesReservados() {
+        return (long) (bloqueActual + 1) * TAMANO_BLOQUE;
+    }
+
+    boolean isFueraDelHeap() {
+        return fueraDelHeap;
+    }
+
+    private void nuevoBloque() {
+        ByteBuffer[] actuales = bloques;
+        int siguiente = bloqueActual + 1;
+        if (siguiente >= actuales.length) {
+            actuales = Arrays.copyOf(actuales, actuales.length * 2);
+        }
+        actuales[siguiente] = fueraDelHeap
+            ? ByteBuffer.allocateDirect(TAMANO_BLOQUE)
+            : ByteBuffer.allocate(TAMANO_BLOQUE);
+        bloques = actuales;
+        bloqueActual = siguiente;
+        desplazamiento = 0;
+    }
+}
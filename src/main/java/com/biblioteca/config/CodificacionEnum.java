@@ -0,0 +1,42 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+
+/**
+ * Codificación en un byte de los enums del libro, compartida por el almacén
+ * columnar y el formato de snapshot: 0 = null y ordinal + 1 en otro caso.
+ * En el estado el 0 marca además un hueco sin libro.
+ */
+final class CodificacionEnum {
+    static final byte NULO = 0;
+    static final byte HUECO = 0;
+    static final byte SIN_ESTADO = 1;
+
+    private static final TipoLibro[] TIPOS = TipoLibro.values();
+    private static final FormatoLibro[] FORMATOS = FormatoLibro.values();
+    private static final EstadoLibro[] ESTADOS = EstadoLibro.values();
+
+    private CodificacionEnum() {
+    }
+
+    static byte codigo(Enum<?> valor) {
+        return valor == null ? NULO : (byte) (valor.ordinal() + 1);
+    }
+
+    static byte codigoEstado(EstadoLibro estado) {
+        return estado == null ? SIN_ESTADO : (byte) (estado.ordinal() + 2);
+    }
+
+    static TipoLibro tipo(byte codigo) {
+        return codigo == NULO ? null : TIPOS[codigo - 1];
+    }
+
+    static FormatoLibro formato(byte codigo) {
+        return codigo == NULO ? null : FORMATOS[codigo - 1];
+    }
+
+    // Solo para códigos de libros existentes (distintos de HUECO)
+    static EstadoLibro estado(byte codigo) {
+        return codigo == SIN_ESTADO ? null : ESTADOS[codigo - 2];
+    }
+}
@@ -0,0 +1,83 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del catálogo por combinación TipoLibro × FormatoLibro × EstadoLibro.
+ * Se actualizan en cada inserción y cambio de estado, de modo que las estadísticas
+ * se leen en O(1) respecto al número de libros. LongAdder reparte la contención
+ * entre celdas cuando muchos hilos actualizan el mismo contador. Los libros con tipo,
+ * formato o estado null van a una celda "sin clasificar" fuera del cubo, para que el
+ * total coincida con el tamaño del catálogo.
+ */
+final class ContadoresCatalogo {
+    private static final TipoLibro[] TIPOS = TipoLibro.values();
+    private static final FormatoLibro[] FORMATOS = FormatoLibro.values();
+    private static final EstadoLibro[] ESTADOS = EstadoLibro.values();
+
+    static final int SIN_CLASIFICAR = TIPOS.length * FORMATOS.length * ESTADOS.length;
+    static final int TAMANO = SIN_CLASIFICAR + 1;
+
+    private final LongAdder[] contadores = new LongAdder[TAMANO];
+
+    ContadoresCatalogo() {
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+    }
+
+    void registrar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        contadores[celda(tipo, formato, estado)].increment();
+    }
+
+    void cambiarEstado(TipoLibro tipo, FormatoLibro formato, EstadoLibro anterior, EstadoLibro nuevo) {
+        if (anterior == nuevo) {
+            return;
+        }
+        contadores[celda(tipo, formato, anterior)].decrement();
+        contadores[celda(tipo, formato, nuevo)].increment();
+    }
+
+    EstadisticasCatalogo instantanea() {
+        Map<TipoLibro, Long> porTipo = new EnumMap<>(TipoLibro.class);
+        Map<FormatoLibro, Long> porFormato = new EnumMap<>(FormatoLibro.class);
+        Map<EstadoLibro, Long> porEstado = new EnumMap<>(EstadoLibro.class);
+        long total = 0;
+        for (TipoLibro tipo : TIPOS) {
+            for (FormatoLibro formato : FORMATOS) {
+                for (EstadoLibro estado : ESTADOS) {
+                    long cantidad = contadores[posicion(tipo, formato, estado)].sum();
+                    porTipo.merge(tipo, cantidad, Long::sum);
+                    porFormato.merge(formato, cantidad, Long::sum);
+                    porEstado.merge(estado, cantidad, Long::sum);
+                    total += cantidad;
+                }
+            }
+        }
+        long sinClasificar = contadores[SIN_CLASIFICAR].sum();
+        return new EstadisticasCatalogo(total + sinClasificar, porTipo, porFormato, porEstado, sinClasificar);
+    }
+
+    // Carga los valores guardados en un snapshot, en el orden de posicion()
+    void restaurar(long[] valores) {
+        for (int i = 0; i < TAMANO; i++) {
+            contadores[i].reset();
+            contadores[i].add(valores[i]);
+        }
+    }
+
+    // Celda del libro: su posición en el cubo o SIN_CLASIFICAR si le falta alguna dimensión
+    static int celda(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        if (tipo == null || formato == null || estado == null) {
+            return SIN_CLASIFICAR;
+        }
+        return posicion(tipo, formato, estado);
+    }
+
+    static int posicion(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        return (tipo.ordinal() * FORMATOS.length + formato.ordinal()) * ESTADOS.length + estado.ordinal();
+    }
+}
@@ -1,41 +1,94 @@
 package com.biblioteca.config;
 
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import java.time.Duration;
 
 @Configuration
 public class DatabaseConfig extends AbstractR2dbcConfiguration {
+
+    @Value("${biblioteca.db.url:r2dbc:h2:mem:///biblioteca?options=DB_CLOSE_DELAY=-1}")
+    private String url;
+
+    @Value("${biblioteca.db.usuario:sa}")
+    private String usuario;
+
+    @Value("${biblioteca.db.password:}")
+    private String password;
+
+    @Value("${biblioteca.db.pool.tamano-inicial:4}")
+    private int tamanoInicial;
+
+    @Value("${biblioteca.db.pool.tamano-maximo:16}")
+    private int tamanoMaximo;
+
+    @Value("${biblioteca.db.pool.inactividad-maxima:30m}")
+    private Duration inactividadMaxima;
+
+    @Value("${biblioteca.db.pool.espera-maxima:5s}")
+    private Duration esperaMaxima;
+
+    @Value("${biblioteca.db.pool.consulta-validacion:SELECT 1}")
+    private String consultaValidacion;
+
+    // dispose() cierra las conexiones del pool al parar el contexto (close() solo devuelve un Publisher)
     @Override
-    @Bean
-    public ConnectionFactory connectionFactory() {
-        return DatabaseConnection.getInstance().getConnectionFactory();
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory() {
+        return DatabaseConnection.getInstance(new ConfiguracionConexion(url, usuario, password,
+            tamanoInicial, tamanoMaximo, inactividadMaxima, esperaMaxima, consultaValidacion))
+            .getConnectionPool();
     }
 }
 
-// Patron Singleton para la conexion a la base de datos
+// Parámetros del pool leídos de application.properties (biblioteca.db.*)
+record ConfiguracionConexion(String url, String usuario, String password,
+                             int tamanoInicial, int tamanoMaximo,
+                             Duration inactividadMaxima, Duration esperaMaxima,
+                             String consultaValidacion) {
+}
+
+// Patron Singleton para la conexion a la base de datos: un único pool de conexiones
+// compartido por los repositorios, el DatabaseClient y la carga por lotes
 class DatabaseConnection {
     private static DatabaseConnection instance;
-    private final ConnectionFactory connectionFactory;
+    private final ConnectionPool connectionPool;
 
-    private DatabaseConnection() {
-        this.connectionFactory = ConnectionFactoryBuilder
-            .withUrl("r2dbc:h2:mem:///biblioteca")
-            .username("sa")
-            .password("")
+    private DatabaseConnection(ConfiguracionConexion configuracion) {
+        ConnectionFactory conexiones = ConnectionFactoryBuilder
+            .withUrl(configuracion.url())
+            .username(configuracion.usuario())
+            .password(configuracion.password())
             .build();
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(conexiones)
+            .name("biblioteca")
+            .initialSize(configuracion.tamanoInicial())
+            .maxSize(configuracion.tamanoMaximo())
+            .maxIdleTime(configuracion.inactividadMaxima())
+            .maxAcquireTime(configuracion.esperaMaxima())
+            .validationQuery(configuracion.consultaValidacion())
+            .build());
+
+        System.out.println("✓ Pool R2DBC " + configuracion.url() + " (inicial " + configuracion.tamanoInicial()
+            + ", máximo " + configuracion.tamanoMaximo() + ")");
     }
 
-    public static synchronized DatabaseConnection getInstance() {
+    // La configuración solo se usa en la primera llamada, al crear el pool
+    public static synchronized DatabaseConnection getInstance(ConfiguracionConexion configuracion) {
         if (instance == null) {
-            instance = new DatabaseConnection();
+            instance = new DatabaseConnection(configuracion);
         }
         return instance;
     }
 
-    public ConnectionFactory getConnectionFactory() {
-        return connectionFactory;
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
     }
 }
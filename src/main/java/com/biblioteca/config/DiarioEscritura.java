@@ -0,0 +1,421 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de escritura anticipada (WAL) de LibraryDatabase con group commit.
+ * Los hilos que escriben solo encolan el registro ya codificado; un único hilo
+ * lo vuelca a disco por lotes con un fsync por lote (o por ventana de tiempo
+ * en modo ASINCRONA), así el coste del fsync se reparte entre muchos cambios.
+ * El diario se divide en segmentos wal-NNNNNN.log para poder compactarlo en
+ * un snapshot y borrar los segmentos ya incluidos.
+ * Un error de E/S deja el diario en estado fallido: el lote en curso y lo que
+ * siga encolado se rechazan, y no se admiten registros nuevos.
+ *
+ * Registro: [longitud int][CRC32C int][tipo byte][id long][datos]
+ */
+final class DiarioEscritura {
+    private static final byte ALTA = 1;
+    private static final byte ESTADO = 2;
+    private static final int CABECERA_REGISTRO = 2 * Integer.BYTES;
+
+    /** Registro encolado; en modo SINCRONA quien lo escribió espera a que sea duradero. */
+    static final class Entrada {
+        private final ByteBuffer datos;
+        private final CompletableFuture<Integer> rotacion;
+        private volatile boolean duradera;
+
+        private Entrada(ByteBuffer datos, CompletableFuture<Integer> rotacion) {
+            this.datos = datos;
+            this.rotacion = rotacion;
+        }
+    }
+
+    /** Destino de la reproducción del diario al arrancar. */
+    interface Aplicador {
+        void alta(Long id, Libro libro);
+
+        void estado(Long id, EstadoLibro estado);
+    }
+
+    private final Path directorio;
+    private final DurabilidadDiario durabilidad;
+    private final long intervaloMs;
+    private final int loteMaximo;
+    private final LinkedBlockingQueue<Entrada> cola = new LinkedBlockingQueue<>();
+    private final Object monitor = new Object();
+    private final Thread volcador;
+    private volatile boolean activo = true;
+    private volatile IOException fallo;
+
+    private FileChannel canal;
+    private int segmento;
+    private volatile long bytesSegmento;
+
+    DiarioEscritura(Path directorio, DurabilidadDiario durabilidad, long intervaloMs, int loteMaximo) throws IOException {
+        this.directorio = directorio;
+        this.durabilidad = durabilidad;
+        this.intervaloMs = intervaloMs;
+        this.loteMaximo = loteMaximo;
+        Files.createDirectories(directorio);
+        for (Integer numero : segmentos(directorio)) {
+            if (Files.size(ruta(directorio, numero)) == 0) {
+                Files.delete(ruta(directorio, numero));
+            }
+        }
+        List<Integer> existentes = segmentos(directorio);
+        // Siempre se empieza un segmento nuevo: una cola rota del anterior queda aislada
+        this.segmento = existentes.isEmpty() ? 1 : existentes.get(existentes.size() - 1) + 1;
+        this.canal = abrirSegmento(segmento);
+        this.volcador = new Thread(this::volcar, "wal-volcador");
+        this.volcador.setDaemon(true);
+        this.volcador.start();
+    }
+
+    Entrada registrarAlta(Long id, Libro libro) {
+        byte[] titulo = bytes(libro.getTitulo());
+        byte[] autor = bytes(libro.getAutor());
+        byte[] descripcion = bytes(libro.getDescripcionOriginal());
+        int longitud = 1 + Long.BYTES + 3 + 3 * Integer.BYTES + largo(titulo) + largo(autor) + largo(descripcion);
+        ByteBuffer registro = nuevoRegistro(longitud, ALTA, id)
+            .put(CodificacionEnum.codigo(libro.getTipo()))
+            .put(CodificacionEnum.codigo(libro.getFormato()))
+            .put(CodificacionEnum.codigoEstado(libro.getEstado()));
+        ponerTexto(registro, titulo);
+        ponerTexto(registro, autor);
+        ponerTexto(registro, descripcion);
+        return encolar(cerrarRegistro(registro));
+    }
+
+    Entrada registrarEstado(Long id, EstadoLibro estado) {
+        ByteBuffer registro = nuevoRegistro(1 + Long.BYTES + 1, ESTADO, id)
+            .put(CodificacionEnum.codigoEstado(estado));
+        return encolar(cerrarRegistro(registro));
+    }
+
+    // Lanza si el diario ya no puede aceptar registros (cerrado o tras un error de E/S)
+    void comprobarDisponible() {
+        if (fallo != null) {
+            throw new RuntimeException("El diario de escritura falló: " + fallo.getMessage(), fallo);
+        }
+        if (!activo) {
+            throw new RuntimeException("El diario de escritura está cerrado");
+        }
+    }
+
+    // Bloquea hasta que el registro esté en disco, solo en modo SINCRONA
+    void esperar(Entrada entrada) {
+        if (durabilidad != DurabilidadDiario.SINCRONA || entrada.duradera) {
+            return;
+        }
+        synchronized (monitor) {
+            while (!entrada.duradera) {
+                if (fallo != null) {
+                    throw new RuntimeException("El diario de escritura falló: " + fallo.getMessage(), fallo);
+                }
+                if (!activo && !volcador.isAlive()) {
+                    throw new RuntimeException("El diario de escritura está cerrado");
+                }
+                try {
+                    monitor.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrumpido esperando al diario de escritura", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra el segmento actual y abre el siguiente. Todo lo encolado antes
+     * queda en segmentos anteriores al devuelto, que pueden borrarse cuando
+     * un snapshot posterior esté escrito.
+     */
+    int rotar() {
+        comprobarDisponible();
+        CompletableFuture<Integer> rotacion = new CompletableFuture<>();
+        cola.add(new Entrada(null, rotacion));
+        try {
+            return rotacion.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("No se pudo rotar el diario de escritura", e.getCause());
+        }
+    }
+
+    void eliminarAnteriores(int segmentoActual) throws IOException {
+        for (Integer numero : segmentos(directorio)) {
+            if (numero < segmentoActual) {
+                Files.deleteIfExists(ruta(directorio, numero));
+            }
+        }
+    }
+
+    long getBytesSegmento() {
+        return bytesSegmento;
+    }
+
+    void cerrar() {
+        activo = false;
+        try {
+            volcador.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reproduce todos los segmentos en orden. Un registro truncado o con CRC
+     * incorrecto marca el final útil de su segmento (escritura a medias).
+     * Devuelve el número de registros aplicados.
+     */
+    static long reproducir(Path directorio, Aplicador aplicador) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            return 0;
+        }
+        long aplicados = 0;
+        for (Integer numero : segmentos(directorio)) {
+            ByteBuffer contenido = ByteBuffer.wrap(Files.readAllBytes(ruta(directorio, numero)));
+            while (contenido.remaining() >= CABECERA_REGISTRO) {
+                int longitud = contenido.getInt();
+                int crcEsperado = contenido.getInt();
+                if (longitud <= 0 || longitud > contenido.remaining()) {
+                    System.err.println("✗ Registro incompleto al final de " + ruta(directorio, numero));
+                    break;
+                }
+                ByteBuffer registro = contenido.slice(contenido.position(), longitud);
+                CRC32C crc = new CRC32C();
+                crc.update(registro.duplicate());
+                if ((int) crc.getValue() != crcEsperado) {
+                    System.err.println("✗ CRC incorrecto en " + ruta(directorio, numero) + ", se ignora el resto del segmento");
+                    break;
+                }
+                contenido.position(contenido.position() + longitud);
+                aplicar(registro, aplicador);
+                aplicados++;
+            }
+        }
+        return aplicados;
+    }
+
+    private static void aplicar(ByteBuffer registro, Aplicador aplicador) {
+        byte tipo = registro.get();
+        Long id = registro.getLong();
+        if (tipo == ALTA) {
+            TipoLibro tipoLibro = CodificacionEnum.tipo(registro.get());
+            FormatoLibro formato = CodificacionEnum.formato(registro.get());
+            EstadoLibro estado = CodificacionEnum.estado(registro.get());
+            aplicador.alta(id, Libro.builder()
+                .id(id)
+                .tipo(tipoLibro)
+                .formato(formato)
+                .estado(estado)
+                .titulo(leerTexto(registro))
+                .autor(leerTexto(registro))
+                .descripcion(leerTexto(registro))
+                .build());
+        } else if (tipo == ESTADO) {
+            aplicador.estado(id, CodificacionEnum.estado(registro.get()));
+        }
+    }
+
+    private void volcar() {
+        List<Entrada> lote = new ArrayList<>(loteMaximo);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Entrada primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                if (fallo != null) {
+                    // Encolado justo antes de que se detectara el fallo: se rechaza sin escribir
+                    cola.drainTo(lote);
+                    rechazar(lote, fallo);
+                    continue;
+                }
+                if (durabilidad == DurabilidadDiario.SINCRONA) {
+                    // El lote es lo que se acumuló mientras se hacía el fsync anterior
+                    cola.drainTo(lote, loteMaximo - 1);
+                } else {
+                    long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+                    while (lote.size() < loteMaximo) {
+                        Entrada siguiente = cola.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (siguiente == null) {
+                            break;
+                        }
+                        lote.add(siguiente);
+                    }
+                }
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                System.err.println("✗ Error escribiendo el diario de escritura, se deja de aceptar cambios: "
+                    + e.getMessage());
+                fallo = e;
+                cola.drainTo(lote);
+                rechazar(lote, e);
+            } finally {
+                lote.clear();
+            }
+        }
+        if (fallo != null) {
+            cerrarSinForzar();
+            return;
+        }
+        try {
+            canal.force(false);
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("✗ Error cerrando el diario de escritura: " + e.getMessage());
+        }
+    }
+
+    // El lote no llegó a disco: las rotaciones fallan y quien espera en esperar() recibe la excepción
+    private void rechazar(List<Entrada> lote, IOException error) {
+        for (Entrada entrada : lote) {
+            if (entrada.rotacion != null) {
+                entrada.rotacion.completeExceptionally(error);
+            }
+        }
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private void cerrarSinForzar() {
+        try {
+            canal.close();
+        } catch (IOException e) {
+            System.err.println("✗ Error cerrando el diario de escritura: " + e.getMessage());
+        }
+    }
+
+    private void escribirLote(List<Entrada> lote) throws IOException {
+        List<ByteBuffer> pendientes = new ArrayList<>(lote.size());
+        for (Entrada entrada : lote) {
+            if (entrada.rotacion == null) {
+                pendientes.add(entrada.datos);
+                continue;
+            }
+            escribir(pendientes);
+            canal.force(false);
+            canal.close();
+            segmento++;
+            canal = abrirSegmento(segmento);
+            bytesSegmento = 0;
+            entrada.rotacion.complete(segmento);
+        }
+        escribir(pendientes);
+        if (durabilidad != DurabilidadDiario.NINGUNA) {
+            canal.force(false);
+        }
+        for (Entrada entrada : lote) {
+            entrada.duradera = true;
+        }
+        if (durabilidad == DurabilidadDiario.SINCRONA) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    private void escribir(List<ByteBuffer> pendientes) throws IOException {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = pendientes.toArray(new ByteBuffer[0]);
+        long total = 0;
+        for (ByteBuffer buffer : buffers) {
+            total += buffer.remaining();
+        }
+        long escritos = 0;
+        while (escritos < total) {
+            escritos += canal.write(buffers);
+        }
+        bytesSegmento += total;
+        pendientes.clear();
+    }
+
+    private Entrada encolar(ByteBuffer datos) {
+        comprobarDisponible();
+        Entrada entrada = new Entrada(datos, null);
+        cola.add(entrada);
+        return entrada;
+    }
+
+    private FileChannel abrirSegmento(int numero) throws IOException {
+        return FileChannel.open(ruta(directorio, numero),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static ByteBuffer nuevoRegistro(int longitud, byte tipo, Long id) {
+        ByteBuffer registro = ByteBuffer.allocate(CABECERA_REGISTRO + longitud);
+        registro.putInt(longitud).putInt(0).put(tipo).putLong(id);
+        return registro;
+    }
+
+    private static ByteBuffer cerrarRegistro(ByteBuffer registro) {
+        CRC32C crc = new CRC32C();
+        crc.update(registro.array(), CABECERA_REGISTRO, registro.position() - CABECERA_REGISTRO);
+        registro.putInt(Integer.BYTES, (int) crc.getValue());
+        return registro.flip();
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto == null ? null : texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int largo(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void ponerTexto(ByteBuffer registro, byte[] bytes) {
+        if (bytes == null) {
+            registro.putInt(-1);
+        } else {
+            registro.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static String leerTexto(ByteBuffer registro) {
+        int longitud = registro.getInt();
+        if (longitud < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        registro.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<Integer> segmentos(Path directorio) throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros
+                .map(fichero -> fichero.getFileName().toString())
+                .filter(nombre -> nombre.matches("wal-\\d{6}\\.log"))
+                .map(nombre -> Integer.parseInt(nombre.substring(4, 10)))
+                .sorted()
+                .toList();
+        }
+    }
+
+    private static Path ruta(Path directorio, int numero) {
+        return directorio.resolve(String.format("wal-%06d.log", numero));
+    }
+}
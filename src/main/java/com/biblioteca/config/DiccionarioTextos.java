@@ -0,0 +1,52 @@
+package com.biblioteca.config;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Codificación por diccionario: cada texto distinto se guarda una sola vez y
+ * las columnas solo almacenan su código int. Pensado para columnas con pocos
+ * valores distintos, como los autores.
+ */
+final class DiccionarioTextos {
+    static final int NULO = -1;
+
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+    private volatile String[] valores = new String[1024];
+    private int siguiente;
+
+    int codificar(String valor) {
+        if (valor == null) {
+            return NULO;
+        }
+        Integer codigo = codigos.get(valor);
+        if (codigo != null) {
+            return codigo;
+        }
+        synchronized (this) {
+            codigo = codigos.get(valor);
+            if (codigo != null) {
+                return codigo;
+            }
+            int nuevo = siguiente++;
+            String[] actuales = valores;
+            if (nuevo >= actuales.length) {
+                actuales = Arrays.copyOf(actuales, actuales.length * 2);
+            }
+            actuales[nuevo] = valor;
+            // Escritura volatile: quien lea el código después ve también el valor
+            valores = actuales;
+            codigos.put(valor, nuevo);
+            return nuevo;
+        }
+    }
+
+    String decodificar(int codigo) {
+        return codigo == NULO ? null : valores[codigo];
+    }
+
+    synchronized int tamano() {
+        return siguiente;
+    }
+}
@@ -0,0 +1,13 @@
+package com.biblioteca.config;
+
+/**
+ * Modos de durabilidad del diario de escritura (WAL) de LibraryDatabase.
+ */
+enum DurabilidadDiario {
+    // Se escribe al fichero sin fsync: sobrevive a la caída del proceso, no a la del sistema
+    NINGUNA,
+    // fsync por lote o ventana de tiempo; quien escribe no espera al disco
+    ASINCRONA,
+    // Quien escribe espera al fsync de su lote (group commit)
+    SINCRONA
+}
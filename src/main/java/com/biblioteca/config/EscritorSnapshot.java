@@ -0,0 +1,182 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.Libro;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static com.biblioteca.config.FormatoSnapshot.*;
+
+/**
+ * Escribe un snapshot en un fichero temporal y lo mueve de forma atómica al
+ * destino, de modo que un fallo a mitad nunca deja un snapshot a medias.
+ * Los contadores se recalculan con los registros escritos para que la
+ * cabecera sea coherente con el contenido aunque haya escrituras concurrentes.
+ */
+final class EscritorSnapshot {
+
+    private EscritorSnapshot() {
+    }
+
+    // Devuelve el número de libros escritos
+    static long escribir(Path destino, AlmacenLibros almacen, long siguienteId) throws IOException {
+        long registros = siguienteId - 1;
+        if (registros * TAMANO_REGISTRO > Integer.MAX_VALUE) {
+            throw new IOException("Demasiados libros para un snapshot: " + registros);
+        }
+        int tamanoCabecera = tamanoCabecera(ContadoresCatalogo.TAMANO);
+        long inicioTextos = tamanoCabecera + registros * TAMANO_REGISTRO;
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        if (destino.getParent() != null) {
+            Files.createDirectories(destino.getParent());
+        }
+
+        long presentes = 0;
+        long[] contadores = new long[ContadoresCatalogo.TAMANO];
+        Map<String, Integer> codigosAutor = new HashMap<>();
+        List<Long> referenciasAutor = new ArrayList<>();
+
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Seccion seccionRegistros = new Seccion(canal, tamanoCabecera);
+            Seccion seccionTextos = new Seccion(canal, inicioTextos);
+            ByteBuffer registro = ByteBuffer.allocate(TAMANO_REGISTRO);
+
+            for (long id = 1; id <= registros; id++) {
+                Libro libro = almacen.obtener(id);
+                registro.clear();
+                if (libro == null) {
+                    registro.put(new byte[TAMANO_REGISTRO]);
+                } else {
+                    Integer autor = null;
+                    if (libro.getAutor() != null) {
+                        autor = codigosAutor.get(libro.getAutor());
+                        if (autor == null) {
+                            autor = referenciasAutor.size();
+                            codigosAutor.put(libro.getAutor(), autor);
+                            referenciasAutor.add(escribirTexto(seccionTextos, libro.getAutor()));
+                        }
+                    }
+                    registro.put(CodificacionEnum.codigo(libro.getTipo()))
+                        .put(CodificacionEnum.codigo(libro.getFormato()))
+                        .put(CodificacionEnum.codigoEstado(libro.getEstado()))
+                        .put((byte) 0)
+                        .putInt(autor == null ? DiccionarioTextos.NULO : autor)
+                        .putLong(escribirTexto(seccionTextos, libro.getTitulo()))
+                        .putLong(escribirTexto(seccionTextos, libro.getDescripcionOriginal()))
+                        .putInt(crcRegistro(ByteBuffer.wrap(registro.array(), 0, REG_CRC),
+                            libro.getTitulo(), libro.getAutor(), libro.getDescripcionOriginal()));
+                    presentes++;
+                    contadores[ContadoresCatalogo.celda(libro.getTipo(), libro.getFormato(), libro.getEstado())]++;
+                }
+                seccionRegistros.escribir(registro.flip());
+            }
+
+            seccionRegistros.vaciar();
+            seccionTextos.vaciar();
+            Seccion seccionAutores = new Seccion(canal, inicioTextos + seccionTextos.escritos);
+            ByteBuffer referencia = ByteBuffer.allocate(Long.BYTES);
+            for (Long valor : referenciasAutor) {
+                seccionAutores.escribir(referencia.clear().putLong(valor).flip());
+            }
+            seccionAutores.vaciar();
+
+            ByteBuffer cabecera = ByteBuffer.allocate(tamanoCabecera);
+            cabecera.putInt(MAGIA).putInt(VERSION)
+                .putLong(POS_SIGUIENTE_ID, siguienteId)
+                .putLong(POS_REGISTROS, registros)
+                .putLong(POS_PRESENTES, presentes)
+                .putLong(POS_BYTES_TEXTO, seccionTextos.escritos)
+                .putInt(POS_AUTORES, referenciasAutor.size())
+                .putInt(POS_CRC_REGISTROS, seccionRegistros.crc())
+                .putInt(POS_CRC_TEXTOS, seccionTextos.crc())
+                .putInt(POS_CRC_AUTORES, seccionAutores.crc())
+                .putInt(POS_NUM_CONTADORES, contadores.length);
+            for (int i = 0; i < contadores.length; i++) {
+                cabecera.putLong(POS_CONTADORES + i * Long.BYTES, contadores[i]);
+            }
+            int posicionCrc = posicionCrcCabecera(contadores.length);
+            CRC32C crc = new CRC32C();
+            crc.update(cabecera.array(), 0, posicionCrc);
+            cabecera.putInt(posicionCrc, (int) crc.getValue());
+            escribirCompleto(canal, cabecera.clear(), 0);
+            canal.force(true);
+        }
+        Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return presentes;
+    }
+
+    private static long escribirTexto(Seccion textos, String texto) throws IOException {
+        if (texto == null) {
+            return TEXTO_NULO;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > LONGITUD_MAXIMA_TEXTO) {
+            throw new IOException("Texto demasiado largo para el snapshot: " + bytes.length + " bytes");
+        }
+        long enSegmento = textos.escritos % TAMANO_SEGMENTO_TEXTO;
+        if (enSegmento + bytes.length > TAMANO_SEGMENTO_TEXTO) {
+            // Relleno hasta el siguiente segmento para que cada texto quepa en un solo mapeo
+            textos.escribir(ByteBuffer.allocate((int) (TAMANO_SEGMENTO_TEXTO - enSegmento)));
+        }
+        long desplazamiento = textos.escritos;
+        textos.escribir(ByteBuffer.wrap(bytes));
+        return referencia(desplazamiento, bytes.length);
+    }
+
+    private static void escribirCompleto(FileChannel canal, ByteBuffer datos, long posicion) throws IOException {
+        while (datos.hasRemaining()) {
+            posicion += canal.write(datos, posicion);
+        }
+    }
+
+    // Escritura con buffer en una posición fija del fichero, con CRC32C incremental
+    private static final class Seccion {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private final CRC32C crc = new CRC32C();
+        private long posicion;
+        private long escritos;
+
+        Seccion(FileChannel canal, long inicio) {
+            this.canal = canal;
+            this.posicion = inicio;
+        }
+
+        void escribir(ByteBuffer datos) throws IOException {
+            crc.update(datos.duplicate());
+            escritos += datos.remaining();
+            while (datos.hasRemaining()) {
+                if (!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                int cantidad = Math.min(buffer.remaining(), datos.remaining());
+                buffer.put(buffer.position(), datos, datos.position(), cantidad);
+                buffer.position(buffer.position() + cantidad);
+                datos.position(datos.position() + cantidad);
+            }
+        }
+
+        void vaciar() throws IOException {
+            buffer.flip();
+            long inicio = posicion;
+            posicion += buffer.remaining();
+            escribirCompleto(canal, buffer, inicio);
+            buffer.clear();
+        }
+
+        int crc() {
+            return (int) crc.getValue();
+        }
+    }
+}
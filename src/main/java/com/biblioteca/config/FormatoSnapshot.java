@@ -0,0 +1,89 @@
+package com.biblioteca.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binario del snapshot de LibraryDatabase (big-endian):
+ *
+ *   cabecera  magia, versión, siguiente ID, nº de registros y de libros,
+ *             bytes de texto, nº de autores, CRC32C de cada sección,
+ *             contadores del catálogo y CRC32C de la propia cabecera
+ *   registros un registro de 28 bytes por ID (1..siguienteId-1), acceso directo
+ *             por posición: tipo, formato, estado (CodificacionEnum), relleno,
+ *             código de autor (int), referencia de título y de descripción (long)
+ *             y CRC32C del propio registro y de sus tres textos (int)
+ *   textos    UTF-8 sin separadores; ningún texto cruza un segmento de 1 GiB
+ *             para poder mapearlos por separado
+ *   autores   diccionario: una referencia de texto (long) por código de autor
+ *
+ * Las referencias de texto son (desplazamiento << 24 | longitud), -1 = null.
+ */
+final class FormatoSnapshot {
+    static final int MAGIA = 0x4249424C; // "BIBL"
+    static final int VERSION = 3;
+
+    static final int POS_SIGUIENTE_ID = 8;
+    static final int POS_REGISTROS = 16;
+    static final int POS_PRESENTES = 24;
+    static final int POS_BYTES_TEXTO = 32;
+    static final int POS_AUTORES = 40;
+    static final int POS_CRC_REGISTROS = 44;
+    static final int POS_CRC_TEXTOS = 48;
+    static final int POS_CRC_AUTORES = 52;
+    static final int POS_NUM_CONTADORES = 56;
+    static final int POS_CONTADORES = 60;
+    static final int TAMANO_CABECERA_FIJA = POS_CONTADORES;
+
+    static final int TAMANO_REGISTRO = 28;
+    static final int REG_TIPO = 0;
+    static final int REG_FORMATO = 1;
+    static final int REG_ESTADO = 2;
+    static final int REG_AUTOR = 4;
+    static final int REG_TITULO = 8;
+    static final int REG_DESCRIPCION = 16;
+    static final int REG_CRC = 24;
+
+    static final long TAMANO_SEGMENTO_TEXTO = 1L << 30;
+    static final int BITS_LONGITUD = 24;
+    static final int LONGITUD_MAXIMA_TEXTO = (1 << BITS_LONGITUD) - 1;
+    static final long TEXTO_NULO = -1L;
+
+    private FormatoSnapshot() {
+    }
+
+    // Contadores + CRC de la cabecera, redondeado a 8 bytes
+    static int tamanoCabecera(int numContadores) {
+        int tamano = POS_CONTADORES + numContadores * Long.BYTES + Integer.BYTES;
+        return (tamano + 7) & ~7;
+    }
+
+    static int posicionCrcCabecera(int numContadores) {
+        return POS_CONTADORES + numContadores * Long.BYTES;
+    }
+
+    // CRC de un registro: sus primeros REG_CRC bytes y los textos en UTF-8 (los null ya van marcados en el registro)
+    static int crcRegistro(ByteBuffer registro, String titulo, String autor, String descripcion) {
+        CRC32C crc = new CRC32C();
+        crc.update(registro);
+        for (String texto : new String[] {titulo, autor, descripcion}) {
+            if (texto != null) {
+                crc.update(texto.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    static long referencia(long desplazamiento, int longitud) {
+        return (desplazamiento << BITS_LONGITUD) | longitud;
+    }
+
+    static long desplazamiento(long referencia) {
+        return referencia >>> BITS_LONGITUD;
+    }
+
+    static int longitud(long referencia) {
+        return (int) (referencia & LONGITUD_MAXIMA_TEXTO);
+    }
+}
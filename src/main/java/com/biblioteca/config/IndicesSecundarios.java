@@ -0,0 +1,70 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índices secundarios por TipoLibro, FormatoLibro y EstadoLibro.
+ * Cada constante del enum tiene su conjunto concurrente de IDs, así que las
+ * consultas por un valor no recorren el catálogo y los filtros combinados
+ * se resuelven intersectando conjuntos, empezando por el más pequeño.
+ */
+final class IndicesSecundarios {
+    private final Map<TipoLibro, Set<Long>> porTipo = crear(TipoLibro.class);
+    private final Map<FormatoLibro, Set<Long>> porFormato = crear(FormatoLibro.class);
+    private final Map<EstadoLibro, Set<Long>> porEstado = crear(EstadoLibro.class);
+
+    void registrar(Libro libro) {
+        agregar(porTipo, libro.getTipo(), libro.getId());
+        agregar(porFormato, libro.getFormato(), libro.getId());
+        agregar(porEstado, libro.getEstado(), libro.getId());
+    }
+
+    void cambiarEstado(Long id, EstadoLibro anterior, EstadoLibro nuevo) {
+        if (anterior == nuevo) {
+            return;
+        }
+        // Se agrega antes de quitar: un lector concurrente puede ver el ID en ambos
+        // conjuntos por un instante, pero nunca en ninguno
+        agregar(porEstado, nuevo, id);
+        if (anterior != null) {
+            porEstado.get(anterior).remove(id);
+        }
+    }
+
+    /**
+     * Intersecta los conjuntos de los filtros presentes (null = sin filtro).
+     * Devuelve null si no hay ningún filtro.
+     */
+    Set<Long> intersectar(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        List<Set<Long>> conjuntos = new ArrayList<>(3);
+        if (tipo != null) conjuntos.add(porTipo.get(tipo));
+        if (formato != null) conjuntos.add(porFormato.get(formato));
+        if (estado != null) conjuntos.add(porEstado.get(estado));
+        if (conjuntos.isEmpty()) {
+            return null;
+        }
+        conjuntos.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> resultado = new HashSet<>(conjuntos.get(0));
+        for (int i = 1; i < conjuntos.size() && !resultado.isEmpty(); i++) {
+            resultado.retainAll(conjuntos.get(i));
+        }
+        return resultado;
+    }
+
+    private static <E extends Enum<E>> void agregar(Map<E, Set<Long>> indice, E clave, Long id) {
+        if (clave != null) {
+            indice.get(clave).add(id);
+        }
+    }
+
+    private static <E extends Enum<E>> Map<E, Set<Long>> crear(Class<E> tipoEnum) {
+        Map<E, Set<Long>> indice = new EnumMap<>(tipoEnum);
+        for (E constante : tipoEnum.getEnumConstants()) {
+            indice.put(constante, ConcurrentHashMap.newKeySet());
+        }
+        return indice;
+    }
+}
@@ -1,27 +1,206 @@
 package com.biblioteca.config;
 
 import com.biblioteca.model.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 /**
  * Patrón Singleton - Base de datos en memoria con datos pre-poblados
  * Esta clase simula una base de datos singleton que mantiene un catálogo
- * de libros pre-cargados y permite operaciones CRUD thread-safe
+ * de libros pre-cargados y permite operaciones CRUD thread-safe.
+ * El almacenamiento se elige con -Dbiblioteca.almacen=mapa|columnar
+ * (y -Dbiblioteca.almacen.texto-offheap=true para sacar los textos del heap).
+ * Con -Dbiblioteca.snapshot=<ruta> el catálogo se abre desde un snapshot
+ * mapeado en memoria y se vuelve a guardar al cerrar la JVM. Si su CRC no
+ * cuadra se deja de servir, se aparta y se recupera lo que haya en el diario.
+ * Con -Dbiblioteca.wal.directorio=<dir> cada alta y cambio de estado se
+ * registra en un diario de escritura (WAL) que se reproduce al arrancar y se
+ * compacta periódicamente en el snapshot (por defecto <dir>/catalogo.snap).
  */
 public class LibraryDatabase {
     private static volatile LibraryDatabase instance;
-    private final Map<Long, Libro> libros;
+    private final AlmacenLibros almacen;
     private final AtomicLong contadorId;
+    private final Path rutaSnapshot;
+    private final AlmacenSnapshot snapshot;
+    private final Path directorioDiario;
+    private final DiarioEscritura diario;
+    private final ContadoresCatalogo contadores = new ContadoresCatalogo();
     private static final Object lock = new Object();
 
     // Constructor privado - patrón Singleton
     private LibraryDatabase() {
-        this.libros = new ConcurrentHashMap<>();
-        this.contadorId = new AtomicLong(1);
-        inicializarDatos();
-        System.out.println("✓ LibraryDatabase Singleton inicializada con " + libros.size() + " libros");
+        String tipoAlmacen = System.getProperty("biblioteca.almacen", "mapa");
+        String snapshotConfigurado = System.getProperty("biblioteca.snapshot");
+        String diarioConfigurado = System.getProperty("biblioteca.wal.directorio");
+        this.directorioDiario = diarioConfigurado == null ? null : Paths.get(diarioConfigurado);
+        // Sin snapshot el diario no se podría compactar nunca: se guarda uno junto a sus segmentos
+        this.rutaSnapshot = snapshotConfigurado != null ? Paths.get(snapshotConfigurado)
+            : directorioDiario != null ? directorioDiario.resolve("catalogo.snap") : null;
+
+        this.snapshot = rutaSnapshot == null ? null : abrirSnapshot(rutaSnapshot, tipoAlmacen);
+        AlmacenLibros base = snapshot != null ? snapshot : crearAlmacen(tipoAlmacen);
+        this.contadorId = new AtomicLong(snapshot != null ? snapshot.getSiguienteId() : 1);
+        long reproducidos = directorioDiario == null ? 0 : reproducirDiario(directorioDiario, base, id -> true);
+        this.diario = directorioDiario == null ? null : abrirDiario(directorioDiario);
+        this.almacen = diario == null ? base : new AlmacenConDiario(base, diario);
+
+        if (snapshot == null && reproducidos == 0) {
+            inicializarDatos();
+        }
+        if (rutaSnapshot != null || diario != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::cerrar, "biblioteca-cierre"));
+        }
+        if (rutaSnapshot != null && diario != null) {
+            programarCompactacion();
+        }
+        if (snapshot != null) {
+            Thread verificador = new Thread(this::comprobarSnapshot, "snapshot-verificador");
+            verificador.setDaemon(true);
+            verificador.start();
+        }
+        System.out.println("✓ LibraryDatabase Singleton inicializada con " + almacen.tamano()
+            + " libros (almacén " + almacen.nombre() + ")");
+    }
+
+    private AlmacenLibros crearAlmacen(String tipo) {
+        return switch (tipo) {
+            case "mapa" -> new AlmacenMapa(contadores);
+            case "columnar" -> new AlmacenColumnar(contadores, Boolean.getBoolean("biblioteca.almacen.texto-offheap"));
+            default -> throw new RuntimeException("Almacén de libros desconocido: " + tipo);
+        };
+    }
+
+    /**
+     * Abre el snapshot si existe. Solo se lee la cabecera; el CRC del contenido
+     * se comprueba en segundo plano (comprobarSnapshot) para no hacer el arranque O(tamaño).
+     */
+    private AlmacenSnapshot abrirSnapshot(Path ruta, String tipoAlmacen) {
+        if (!Files.exists(ruta)) {
+            return null;
+        }
+        try {
+            return AlmacenSnapshot.abrir(ruta, crearAlmacen(tipoAlmacen), contadores);
+        } catch (IOException e) {
+            System.err.println("✗ No se pudo abrir el snapshot " + ruta + ": " + e.getMessage());
+            apartarSnapshot(ruta);
+            return null;
+        }
+    }
+
+    // Se aparta para que el guardado al cerrar no lo sobrescriba
+    private static void apartarSnapshot(Path ruta) {
+        try {
+            Files.move(ruta, ruta.resolveSibling(ruta.getFileName() + ".corrupto"), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("✗ No se pudo apartar el snapshot inválido: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Comprueba el CRC del snapshot una sola vez. Si no cuadra, el snapshot deja de
+     * servirse, se aparta y el catálogo queda en lo que el diario permita recuperar
+     * encima de los libros nuevos. Compactar y cerrar pasan por aquí antes de escribir,
+     * así que nunca se vuelve a guardar un contenido sin verificar.
+     */
+    private synchronized void comprobarSnapshot() {
+        if (snapshot == null || snapshot.getIntegro() != null) {
+            return;
+        }
+        if (snapshot.verificar()) {
+            System.out.println("✓ Snapshot verificado: " + rutaSnapshot);
+            return;
+        }
+        System.err.println("✗ Snapshot corrupto (CRC incorrecto), se descarta: " + rutaSnapshot);
+        snapshot.descartar();
+        apartarSnapshot(rutaSnapshot);
+        long recuperados = 0;
+        if (directorioDiario != null) {
+            // Solo se tocan los libros que trae el diario y no estaban ya en la capa nueva,
+            // que tiene el estado vigente de todo lo escrito desde el arranque
+            Set<Long> restaurados = new HashSet<>();
+            recuperados = reproducirDiario(directorioDiario, snapshot, id -> {
+                if (snapshot.obtener(id) == null) {
+                    restaurados.add(id);
+                }
+                return restaurados.contains(id);
+            });
+        }
+        if (recuperados == 0 && snapshot.tamano() == 0) {
+            inicializarDatos();
+        }
+        System.out.println("✓ Catálogo sin snapshot: " + snapshot.tamano() + " libros");
+    }
+
+    /**
+     * Aplica el diario sobre el almacén base sin volver a registrarlo, solo a los
+     * libros que acepta el filtro. Las altas que ya están en el almacén se ignoran.
+     */
+    private long reproducirDiario(Path directorio, AlmacenLibros base, Predicate<Long> aplicar) {
+        try {
+            long aplicados = DiarioEscritura.reproducir(directorio, new DiarioEscritura.Aplicador() {
+                @Override
+                public void alta(Long id, Libro libro) {
+                    if (aplicar.test(id) && base.obtener(id) == null) {
+                        base.guardar(id, libro);
+                    }
+                    contadorId.accumulateAndGet(id + 1, Math::max);
+                }
+
+                @Override
+                public void estado(Long id, EstadoLibro estado) {
+                    if (aplicar.test(id)) {
+                        base.actualizarEstado(id, estado);
+                    }
+                }
+            });
+            if (aplicados > 0) {
+                System.out.println("✓ Diario de escritura reproducido: " + aplicados + " registros");
+            }
+            return aplicados;
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo reproducir el diario de escritura: " + e.getMessage(), e);
+        }
+    }
+
+    private DiarioEscritura abrirDiario(Path directorio) {
+        try {
+            return new DiarioEscritura(directorio,
+                DurabilidadDiario.valueOf(System.getProperty("biblioteca.wal.durabilidad", "asincrona").toUpperCase()),
+                Long.getLong("biblioteca.wal.intervalo-ms", 10),
+                Integer.getInteger("biblioteca.wal.lote-maximo", 1024));
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudo abrir el diario de escritura: " + e.getMessage(), e);
+        }
+    }
+
+    // Compacta cuando el segmento actual del diario supera el umbral configurado
+    private void programarCompactacion() {
+        long umbral = Long.getLong("biblioteca.wal.compactar-bytes", 64L * 1024 * 1024);
+        long periodo = Long.getLong("biblioteca.wal.compactar-cada-ms", 30_000);
+        ScheduledExecutorService compactador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "wal-compactacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        compactador.scheduleWithFixedDelay(() -> {
+            if (diario.getBytesSegmento() >= umbral) {
+                try {
+                    compactarDiario();
+                } catch (RuntimeException e) {
+                    System.err.println("✗ Error compactando el diario: " + e.getMessage());
+                }
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -85,11 +264,13 @@ public class LibraryDatabase {
     }
 
     /**
-     * Agrega un libro a la base de datos
+     * Agrega un libro a la base de datos.
+     * El ID sale de un AtomicLong y el almacén guarda una copia con ese ID, por lo que
+     * las inserciones concurrentes no necesitan ningún bloqueo global.
      */
-    public synchronized Long agregarLibro(Libro libro) {
+    public Long agregarLibro(Libro libro) {
         Long id = contadorId.getAndIncrement();
-        libros.put(id, libro);
+        almacen.guardar(id, libro);
         return id;
     }
 
@@ -97,105 +278,176 @@ public class LibraryDatabase {
      * Obtiene un libro por ID
      */
     public Optional<Libro> obtenerLibroPorId(Long id) {
-        return Optional.ofNullable(libros.get(id));
+        return Optional.ofNullable(almacen.obtener(id));
     }
 
     /**
      * Obtiene todos los libros
      */
     public List<Libro> obtenerTodosLosLibros() {
-        return new ArrayList<>(libros.values());
+        List<Libro> todos = new ArrayList<>(almacen.tamano());
+        almacen.recorrer(todos::add);
+        return todos;
     }
 
     /**
      * Busca libros por título (búsqueda parcial, case-insensitive)
      */
     public List<Libro> buscarPorTitulo(String titulo) {
-        return libros.values().stream()
-            .filter(libro -> libro.getTitulo().toLowerCase().contains(titulo.toLowerCase()))
-            .toList();
+        String patron = titulo.toLowerCase();
+        List<Libro> resultado = new ArrayList<>();
+        almacen.recorrer(libro -> {
+            if (libro.getTitulo().toLowerCase().contains(patron)) {
+                resultado.add(libro);
+            }
+        });
+        return resultado;
     }
 
     /**
      * Busca libros por autor (búsqueda parcial, case-insensitive)
      */
     public List<Libro> buscarPorAutor(String autor) {
-        return libros.values().stream()
-            .filter(libro -> libro.getAutor().toLowerCase().contains(autor.toLowerCase()))
-            .toList();
+        String patron = autor.toLowerCase();
+        List<Libro> resultado = new ArrayList<>();
+        almacen.recorrer(libro -> {
+            if (libro.getAutor().toLowerCase().contains(patron)) {
+                resultado.add(libro);
+            }
+        });
+        return resultado;
     }
 
     /**
-     * Obtiene libros por tipo
+     * Obtiene libros por tipo (índice secundario o columna de ordinales, sin recorrer objetos)
      */
     public List<Libro> obtenerLibrosPorTipo(TipoLibro tipo) {
-        return libros.values().stream()
-            .filter(libro -> libro.getTipo() == tipo)
-            .toList();
+        return almacen.filtrar(tipo, null, null);
     }
 
     /**
      * Obtiene libros por formato
      */
     public List<Libro> obtenerLibrosPorFormato(FormatoLibro formato) {
-        return libros.values().stream()
-            .filter(libro -> libro.getFormato() == formato)
-            .toList();
+        return almacen.filtrar(null, formato, null);
     }
 
     /**
-     * Obtiene estadísticas de la biblioteca
+     * Obtiene libros por estado
+     */
+    public List<Libro> obtenerLibrosPorEstado(EstadoLibro estado) {
+        return almacen.filtrar(null, null, estado);
+    }
+
+    /**
+     * Filtro combinado, p. ej. "ficción digital disponible". Los parámetros null
+     * no filtran; el almacén lo resuelve intersectando índices o recorriendo columnas.
+     */
+    public List<Libro> buscarPorFiltros(TipoLibro tipo, FormatoLibro formato, EstadoLibro estado) {
+        return almacen.filtrar(tipo, formato, estado);
+    }
+
+    /**
+     * Obtiene estadísticas de la biblioteca a partir de los contadores incrementales
      */
     public String obtenerEstadisticas() {
-        long totalLibros = libros.size();
-        long librosFiccion = libros.values().stream()
-            .filter(libro -> libro.getTipo() == TipoLibro.FICCION)
-            .count();
-        long librosNoFiccion = libros.values().stream()
-            .filter(libro -> libro.getTipo() == TipoLibro.NO_FICCION)
-            .count();
-        long librosFisicos = libros.values().stream()
-            .filter(libro -> libro.getFormato() == FormatoLibro.FISICO)
-            .count();
-        long librosDigitales = libros.values().stream()
-            .filter(libro -> libro.getFormato() == FormatoLibro.DIGITAL)
-            .count();
+        EstadisticasCatalogo estadisticas = contadores.instantanea();
 
         return String.format(
             "📊 ESTADÍSTICAS DE LA BIBLIOTECA:\n" +
             "   Total de libros: %d\n" +
             "   Ficción: %d | No Ficción: %d\n" +
-            "   Físicos: %d | Digitales: %d",
-            totalLibros, librosFiccion, librosNoFiccion, librosFisicos, librosDigitales
+            "   Físicos: %d | Digitales: %d\n" +
+            "   Disponibles: %d | Prestados: %d\n" +
+            "   Sin clasificar: %d",
+            estadisticas.total(),
+            estadisticas.porTipo().get(TipoLibro.FICCION), estadisticas.porTipo().get(TipoLibro.NO_FICCION),
+            estadisticas.porFormato().get(FormatoLibro.FISICO), estadisticas.porFormato().get(FormatoLibro.DIGITAL),
+            estadisticas.porEstado().get(EstadoLibro.DISPONIBLE), estadisticas.porEstado().get(EstadoLibro.PRESTADO),
+            estadisticas.sinClasificar()
         );
     }
 
     /**
-     * Actualiza el estado de un libro
+     * Obtiene las estadísticas estructuradas (O(1): no recorre el catálogo)
+     */
+    public EstadisticasCatalogo obtenerEstadisticasCatalogo() {
+        return contadores.instantanea();
+    }
+
+    /**
+     * Actualiza el estado de un libro sin importar el estado anterior.
+     * El cambio es atómico solo para ese libro: escrituras sobre libros
+     * distintos no se bloquean entre sí.
      */
-    public synchronized boolean actualizarEstadoLibro(Long id, EstadoLibro nuevoEstado) {
-        Libro libro = libros.get(id);
-        if (libro != null) {
-            // Como Libro es inmutable, necesitamos crear una nueva instancia
-            Libro libroActualizado = Libro.builder()
-                .titulo(libro.getTitulo())
-                .autor(libro.getAutor())
-                .tipo(libro.getTipo())
-                .formato(libro.getFormato())
-                .descripcion(libro.getDescripcion())
-                .estado(nuevoEstado)
-                .build();
-            libros.put(id, libroActualizado);
-            return true;
+    public boolean actualizarEstadoLibro(Long id, EstadoLibro nuevoEstado) {
+        return almacen.actualizarEstado(id, nuevoEstado);
+    }
+
+    /**
+     * Cambia el estado solo si el libro sigue en el estado esperado (compare-and-set).
+     * Devuelve false si el libro no existe o si otro hilo ya cambió su estado,
+     * lo que permite préstamos concurrentes sin bloqueos ni dobles préstamos.
+     */
+    public boolean compareAndSetEstado(Long id, EstadoLibro esperado, EstadoLibro nuevo) {
+        return almacen.compareAndSetEstado(id, esperado, nuevo);
+    }
+
+    /**
+     * Guarda el catálogo completo y el contador de IDs en un snapshot binario.
+     * Se escribe en un fichero temporal y se renombra, así que un snapshot
+     * abierto en este momento sigue siendo válido.
+     */
+    public void guardarSnapshot(Path destino) {
+        try {
+            long libros = EscritorSnapshot.escribir(destino, almacen, contadorId.get());
+            System.out.println("✓ Snapshot guardado en " + destino + " con " + libros + " libros");
+        } catch (IOException e) {
+            throw new RuntimeException("Error al guardar el snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Vuelca el catálogo al snapshot y borra los segmentos del diario que ya
+     * contiene. Primero se rota el diario: lo registrado antes de la rotación
+     * ya está aplicado en memoria y entra en el snapshot; lo posterior queda en
+     * el segmento nuevo y se reproduce encima (las altas repetidas se ignoran).
+     */
+    public synchronized void compactarDiario() {
+        if (diario == null || rutaSnapshot == null) {
+            return;
+        }
+        comprobarSnapshot();
+        int segmentoActual = diario.rotar();
+        guardarSnapshot(rutaSnapshot);
+        try {
+            diario.eliminarAnteriores(segmentoActual);
+        } catch (IOException e) {
+            throw new RuntimeException("No se pudieron borrar los segmentos compactados: " + e.getMessage(), e);
+        }
+    }
+
+    private void cerrar() {
+        if (diario != null) {
+            // Con el diario en estado fallido no se puede rotar: se cierra igualmente
+            try {
+                compactarDiario();
+            } catch (RuntimeException e) {
+                System.err.println("✗ No se pudo compactar el diario al cerrar: " + e.getMessage());
+            } finally {
+                diario.cerrar();
+            }
+        } else if (rutaSnapshot != null) {
+            comprobarSnapshot();
+            guardarSnapshot(rutaSnapshot);
         }
-        return false;
     }
 
     /**
      * Obtiene el número total de libros
      */
     public int getTotalLibros() {
-        return libros.size();
+        return almacen.tamano();
     }
 
     /**
@@ -203,6 +455,7 @@ public class LibraryDatabase {
      */
     public String getInstanceInfo() {
         return "LibraryDatabase Singleton - Hash: " + this.hashCode() + 
-               " | Libros en memoria: " + libros.size();
+               " | Libros en memoria: " + almacen.tamano() +
+               " | Almacén: " + almacen.nombre();
     }
 }
\ No newline at end of file
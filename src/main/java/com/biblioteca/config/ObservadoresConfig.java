@@ -0,0 +1,23 @@
+package com.biblioteca.config;
+
+import com.biblioteca.observer.PoliticaDesbordamiento;
+import com.biblioteca.observer.PrestamoEventBus;
+import com.biblioteca.observer.PrestamoObserver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Observadores de préstamos: se crean una sola vez y se registran en el bus asíncrono
+@Configuration
+public class ObservadoresConfig {
+
+    @Bean(destroyMethod = "cerrar")
+    public PrestamoEventBus prestamoEventBus(
+            @Value("${biblioteca.eventos.capacidad:1024}") int capacidad,
+            @Value("${biblioteca.eventos.politica:DESCARTAR_ANTIGUOS}") PoliticaDesbordamiento politica) {
+        PrestamoEventBus bus = new PrestamoEventBus(capacidad, politica);
+        bus.suscribir("Sistema de Biblioteca", new PrestamoObserver("Sistema de Biblioteca"));
+        bus.suscribir("Registro de Préstamos", new PrestamoObserver("Registro de Préstamos"));
+        return bus;
+    }
+}
@@ -0,0 +1,15 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.config.LibraryDatabase;
+import com.biblioteca.model.EstadisticasCatalogo;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/estadisticas")
+public class EstadisticasController {
+
+    @GetMapping
+    public EstadisticasCatalogo obtenerEstadisticas() {
+        return LibraryDatabase.getInstance().obtenerEstadisticasCatalogo();
+    }
+}
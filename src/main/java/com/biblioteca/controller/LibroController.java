@@ -3,19 +3,46 @@ package com.biblioteca.controller;
 import com.biblioteca.model.Libro;
 import com.biblioteca.model.TipoLibro;
 import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.LibroProyectado;
+import com.biblioteca.model.ModoLote;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ProyeccionLibro;
+import com.biblioteca.model.ResultadoLote;
+import com.biblioteca.model.Sugerencia;
 import com.biblioteca.service.LibroService;
+import com.biblioteca.strategy.ConsultaLibros;
+import com.biblioteca.importacion.FormatoImportacion;
+import com.biblioteca.importacion.ResumenImportacion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/libros")
 public class LibroController {
 
+    private static final String SMILE = "application/x-jackson-smile";
+
     @Autowired
     private LibroService libroService;
 
+    @Value("${biblioteca.paginacion.limite-defecto:100}")
+    private int limitePorDefecto;
+
+    @Value("${biblioteca.paginacion.limite-maximo:1000}")
+    private int limiteMaximo;
+
+    @Value("${biblioteca.circulacion.maximo-libros:500}")
+    private int maximoLibrosLote;
+
     @PostMapping("/agregar")
     public Mono<Libro> agregarLibro(
             @RequestParam String titulo,
@@ -43,16 +70,151 @@ public class LibroController {
         return libroService.agregarLibroConBuilder(titulo, autor, tipo, formato);
     }
 
-    @GetMapping("/buscar")
-    public Flux<Libro> buscarLibros(
+    @PostMapping(value = "/importar", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResumenImportacion> importarNdjson(@RequestBody Flux<String> lineas) {
+        return libroService.importarLibros(lineas, FormatoImportacion.NDJSON);
+    }
+
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    public Mono<ResumenImportacion> importarCsv(@RequestBody Flux<String> lineas) {
+        return libroService.importarLibros(lineas, FormatoImportacion.CSV);
+    }
+
+    // Búsqueda y listado paginados por cursor: "after" es el último id recibido y "limit" el tamaño
+    // de página. En JSON (o Smile) la página está acotada; NDJSON y SSE emiten libro a libro
+    // con contrapresión y sin límite salvo que se indique. "fields" elige los campos de la respuesta.
+    // Con tipoBusqueda=relevancia el orden es el ranking BM25 y se pagina con "k" y "offset".
+    @GetMapping(value = "/buscar", produces = {MediaType.APPLICATION_JSON_VALUE, SMILE})
+    public Flux<LibroProyectado> buscarLibros(
+            @RequestParam String criterio,
+            @RequestParam(defaultValue = "titulo") String tipoBusqueda,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        if (esRelevancia(tipoBusqueda)) {
+            return libroService.buscarPorRelevancia(criterio, topK(k), validarOffset(offset)).map(proyeccion::aplicar);
+        }
+        return libroService.buscarLibros(criterio, tipoBusqueda, paginaAcotada(after, limit))
+            .map(proyeccion::aplicar);
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LibroProyectado> buscarLibrosNdjson(
+            @RequestParam String criterio,
+            @RequestParam(defaultValue = "titulo") String tipoBusqueda,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        if (esRelevancia(tipoBusqueda)) {
+            return libroService.buscarPorRelevancia(criterio, topK(k), validarOffset(offset)).map(proyeccion::aplicar);
+        }
+        return libroService.buscarLibros(criterio, tipoBusqueda, paginaStreaming(after, limit))
+            .map(proyeccion::aplicar);
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<LibroProyectado>> buscarLibrosSse(
             @RequestParam String criterio,
-            @RequestParam(defaultValue = "titulo") String tipoBusqueda) {
-        return libroService.buscarLibros(criterio, tipoBusqueda);
+            @RequestParam(defaultValue = "titulo") String tipoBusqueda,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        if (esRelevancia(tipoBusqueda)) {
+            // En el ranking el id del evento es la posición: Last-Event-ID reanuda como offset
+            int desde = validarOffset(offset != null ? offset : ultimoEvento != null ? ultimoEvento.intValue() : 0);
+            return libroService.buscarPorRelevancia(criterio, topK(k), desde)
+                .index()
+                .map(posicion -> ServerSentEvent.builder(proyeccion.aplicar(posicion.getT2()))
+                    .id(String.valueOf(desde + posicion.getT1() + 1))
+                    .build());
+        }
+        Pagina pagina = paginaStreaming(after != null ? after : ultimoEvento, limit);
+        return libroService.buscarLibros(criterio, tipoBusqueda, pagina)
+            .map(libro -> evento(libro, proyeccion));
     }
 
-    @GetMapping("/todos")
-    public Flux<Libro> listarTodos() {
-        return libroService.listarTodos();
+    @GetMapping(value = "/todos", produces = {MediaType.APPLICATION_JSON_VALUE, SMILE})
+    public Flux<LibroProyectado> listarTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        return libroService.listarTodos(paginaAcotada(after, limit)).map(proyeccion::aplicar);
+    }
+
+    @GetMapping(value = "/todos", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LibroProyectado> listarTodosNdjson(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        return libroService.listarTodos(paginaStreaming(after, limit)).map(proyeccion::aplicar);
+    }
+
+    @GetMapping(value = "/todos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<LibroProyectado>> listarTodosSse(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        return libroService.listarTodos(paginaStreaming(after != null ? after : ultimoEvento, limit))
+            .map(libro -> evento(libro, proyeccion));
+    }
+
+    // Varios criterios combinados con AND; los que se omiten no filtran
+    @GetMapping(value = "/consulta", produces = {MediaType.APPLICATION_JSON_VALUE, SMILE})
+    public Flux<LibroProyectado> consultarLibros(
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String autor,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        ConsultaLibros consulta = consulta(titulo, autor, tipo, formato, estado);
+        return libroService.consultarLibros(consulta, paginaAcotada(after, limit)).map(proyeccion::aplicar);
+    }
+
+    @GetMapping(value = "/consulta", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<LibroProyectado> consultarLibrosNdjson(
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String autor,
+            @RequestParam(required = false) String tipo,
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        ProyeccionLibro proyeccion = proyeccion(fields);
+        ConsultaLibros consulta = consulta(titulo, autor, tipo, formato, estado);
+        return libroService.consultarLibros(consulta, paginaStreaming(after, limit)).map(proyeccion::aplicar);
+    }
+
+    // Búsqueda mientras se escribe: como mucho tantas sugerencias como guarda cada nodo del trie
+    @GetMapping("/autocompletar")
+    public Flux<Sugerencia> autocompletar(
+            @RequestParam String prefijo,
+            @RequestParam(defaultValue = "10") int limite) {
+        return libroService.autocompletar(prefijo, validarLimite(limite, "limite"));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Libro> obtenerLibro(@PathVariable Long id) {
+        return libroService.obtenerLibro(id)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Libro no encontrado")));
     }
 
     @PostMapping("/{id}/prestar")
@@ -66,4 +228,95 @@ public class LibroController {
     public Mono<String> devolverLibro(@PathVariable Long id) {
         return libroService.devolverLibro(id);
     }
+
+    // Préstamo y devolución de varios libros (cuerpo: [1, 2, 3]) en una sola transacción.
+    // Con modo=TODO_O_NADA un libro rechazado deja el lote sin aplicar y se responde 409.
+    @PostMapping("/lote/prestar")
+    public Mono<ResponseEntity<ResultadoLote>> prestarLote(
+            @RequestBody List<Long> ids,
+            @RequestParam String prestatario,
+            @RequestParam(defaultValue = "TODO_O_NADA") ModoLote modo) {
+        return libroService.prestarLote(validarLote(ids), prestatario, modo).map(this::respuestaLote);
+    }
+
+    @PostMapping("/lote/devolver")
+    public Mono<ResponseEntity<ResultadoLote>> devolverLote(
+            @RequestBody List<Long> ids,
+            @RequestParam(defaultValue = "TODO_O_NADA") ModoLote modo) {
+        return libroService.devolverLote(validarLote(ids), modo).map(this::respuestaLote);
+    }
+
+    // El id del evento es el cursor: un cliente SSE que se reconecta reanuda con Last-Event-ID
+    private ServerSentEvent<LibroProyectado> evento(Libro libro, ProyeccionLibro proyeccion) {
+        return ServerSentEvent.builder(proyeccion.aplicar(libro)).id(String.valueOf(libro.getId())).build();
+    }
+
+    private ProyeccionLibro proyeccion(String fields) {
+        try {
+            return ProyeccionLibro.analizar(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private ConsultaLibros consulta(String titulo, String autor, String tipo, String formato, String estado) {
+        try {
+            return ConsultaLibros.de(titulo, autor, tipo, formato, estado);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private List<Long> validarLote(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > maximoLibrosLote) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "El lote debe tener entre 1 y " + maximoLibrosLote + " libros");
+        }
+        if (ids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El lote contiene ids nulos");
+        }
+        return ids;
+    }
+
+    private ResponseEntity<ResultadoLote> respuestaLote(ResultadoLote resultado) {
+        boolean rechazado = resultado.modo() == ModoLote.TODO_O_NADA && resultado.rechazados() > 0;
+        return ResponseEntity.status(rechazado ? HttpStatus.CONFLICT : HttpStatus.OK).body(resultado);
+    }
+
+    private boolean esRelevancia(String tipoBusqueda) {
+        return LibroService.RELEVANCIA.equalsIgnoreCase(tipoBusqueda);
+    }
+
+    // El ranking siempre está acotado: k sigue las mismas reglas que limit en JSON
+    private int topK(Integer k) {
+        return k == null ? limitePorDefecto : Math.min(validarLimite(k, "k"), limiteMaximo);
+    }
+
+    private int validarOffset(int offset) {
+        if (offset < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro offset no puede ser negativo");
+        }
+        return offset;
+    }
+
+    private Pagina paginaAcotada(Long after, Integer limit) {
+        int limite = limit == null ? limitePorDefecto : Math.min(validarLimite(limit), limiteMaximo);
+        return new Pagina(after == null ? 0 : after, limite);
+    }
+
+    private Pagina paginaStreaming(Long after, Integer limit) {
+        long despuesDe = after == null ? 0 : after;
+        return limit == null ? Pagina.desde(despuesDe) : new Pagina(despuesDe, validarLimite(limit));
+    }
+
+    private int validarLimite(int limit) {
+        return validarLimite(limit, "limit");
+    }
+
+    private int validarLimite(int valor, String parametro) {
+        if (valor < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El parámetro " + parametro + " debe ser mayor que 0");
+        }
+        return valor;
+    }
 }
@@ -0,0 +1,30 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.service.LibroInvalidoException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Las violaciones de validación son lo único que se devuelve al cliente con su mensaje;
+ * el resto de errores sale con el cuerpo por defecto de Spring, sin el mensaje interno.
+ */
+@RestControllerAdvice
+public class ManejadorErrores {
+
+    @ExceptionHandler(LibroInvalidoException.class)
+    public ResponseEntity<Map<String, Object>> libroInvalido(LibroInvalidoException e, ServerHttpRequest peticion) {
+        Map<String, Object> cuerpo = new LinkedHashMap<>();
+        cuerpo.put("timestamp", OffsetDateTime.now());
+        cuerpo.put("path", peticion.getPath().value());
+        cuerpo.put("status", e.getStatusCode().value());
+        cuerpo.put("error", "Bad Request");
+        cuerpo.put("message", "Error de validación: " + e.getResultado().getMensaje());
+        cuerpo.put("violaciones", e.getResultado().getViolaciones());
+        return ResponseEntity.status(e.getStatusCode()).body(cuerpo);
+    }
+}
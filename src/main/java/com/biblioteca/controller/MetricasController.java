@@ -0,0 +1,50 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.observer.MetricasObservador;
+import com.biblioteca.observer.PrestamoEventBus;
+import com.biblioteca.repository.LibroCache;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metricas")
+public class MetricasController {
+
+    @Autowired
+    private PrestamoEventBus prestamoEventBus;
+
+    @Autowired
+    private LibroCache libroCache;
+
+    @Autowired
+    private ConnectionPool connectionPool;
+
+    @GetMapping("/eventos")
+    public List<MetricasObservador> metricasEventos() {
+        return prestamoEventBus.getMetricas();
+    }
+
+    @GetMapping("/cache")
+    public LibroCache.MetricasCache metricasCache() {
+        return libroCache.getMetricas();
+    }
+
+    @GetMapping("/pool")
+    public MetricasPool metricasPool() {
+        return connectionPool.getMetrics()
+            .map(MetricasPool::de)
+            .orElseThrow(() -> new RuntimeException("El pool de conexiones no publica métricas"));
+    }
+
+    // Conexiones en uso, creadas, libres y peticiones esperando una conexión
+    public record MetricasPool(int adquiridas, int asignadas, int inactivas, int pendientes,
+                               int maximoAsignadas, int maximoPendientes) {
+        static MetricasPool de(PoolMetrics metricas) {
+            return new MetricasPool(metricas.acquiredSize(), metricas.allocatedSize(), metricas.idleSize(),
+                metricas.pendingAcquireSize(), metricas.getMaxAllocatedSize(), metricas.getMaxPendingAcquireSize());
+        }
+    }
+}
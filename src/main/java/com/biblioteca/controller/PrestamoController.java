@@ -0,0 +1,25 @@
+package com.biblioteca.controller;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.service.PrestamoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/prestamos")
+public class PrestamoController {
+
+    @Autowired
+    private PrestamoService prestamoService;
+
+    @GetMapping("/libro/{libroId}")
+    public Flux<Prestamo> historialPorLibro(@PathVariable Long libroId) {
+        return prestamoService.historialPorLibro(libroId);
+    }
+
+    @GetMapping("/prestatario/{prestatario}")
+    public Flux<Prestamo> historialPorPrestatario(@PathVariable String prestatario) {
+        return prestamoService.historialPorPrestatario(prestatario);
+    }
+}
@@ -19,6 +19,12 @@ public class PrestamoDecorator implements ILibro {
         this.libro = libro;
     }
 
+    // Para devolver un libro ya prestado: el prestatario sale del historial de préstamos
+    public PrestamoDecorator(ILibro libro, String prestatario) {
+        this.libro = libro;
+        this.prestatario = prestatario;
+    }
+
     public void addObserver(Observer observer) {
         observers.add(observer);
     }
@@ -44,7 +50,8 @@ public class PrestamoDecorator implements ILibro {
             this.prestatario = null;
             this.fechaPrestamo = null;
             libro.setEstado(EstadoLibro.DISPONIBLE);
-            notifyObservers("Libro devuelto por: " + antiguoPrestatario);
+            // Un préstamo sin asiento en el historial (p. ej. datos iniciales) no tiene prestatario conocido
+            notifyObservers(antiguoPrestatario != null ? "Libro devuelto por: " + antiguoPrestatario : "Libro devuelto");
         } else {
             throw new IllegalStateException("El libro no esta prestado");
         }
@@ -71,6 +71,12 @@ public class PatternDemoRunner implements CommandLineRunner {
         db1.obtenerLibrosPorFormato(FormatoLibro.DIGITAL).forEach(libro -> 
             System.out.println("  → " + libro.getTitulo())
         );
+
+        // Filtro combinado resuelto por intersección de índices
+        System.out.println("Ficción digital disponible:");
+        db1.buscarPorFiltros(TipoLibro.FICCION, FormatoLibro.DIGITAL, EstadoLibro.DISPONIBLE).forEach(libro -> 
+            System.out.println("  → " + libro.getTitulo())
+        );
         
         System.out.println();
 
@@ -165,6 +171,15 @@ public class PatternDemoRunner implements CommandLineRunner {
         } catch (ValidationException e) {
             System.out.println("✗ Error de validación: " + e.getMessage());
         }
+
+        // evaluar() recorre toda la cadena y acumula las violaciones sin excepciones
+        ResultadoValidacion resultado = validadorTitulo.evaluar(Libro.builder()
+            .titulo("X")
+            .autor("4")
+            .build());
+        resultado.getViolaciones().forEach(violacion ->
+            System.out.println("  ✗ " + violacion.validador() + ": " + violacion.mensaje())
+        );
         System.out.println();
 
         // 8. Adapter Pattern
@@ -1,10 +1,28 @@
 package com.biblioteca.factory;
 
+import com.biblioteca.model.FormatoLibro;
 import com.biblioteca.model.Libro;
 
 // Patrón Abstract Factory - Interfaz abstracta para familias de productos
 public interface AbstractLibroFactory {
     Libro crearLibroFiccion(String titulo, String autor);
     Libro crearLibroNoFiccion(String titulo, String autor);
+
+    // Familia de productos según el formato; las factories no tienen estado y se comparten
+    static AbstractLibroFactory getFactory(FormatoLibro formato) {
+        return switch (formato) {
+            case FISICO -> Familias.FISICO;
+            case DIGITAL -> Familias.DIGITAL;
+        };
+    }
+}
+
+// Instancias compartidas (los campos de una interfaz serían públicos)
+final class Familias {
+    static final AbstractLibroFactory FISICO = new LibroFisicoFactory();
+    static final AbstractLibroFactory DIGITAL = new LibroDigitalFactory();
+
+    private Familias() {
+    }
 }
 
@@ -7,12 +7,16 @@ import com.biblioteca.model.EstadoLibro;
 
 // Patron Factory Method - Clase base abstracta
 public abstract class LibroFactory {
+    // Las factories no tienen estado: una instancia por tipo para toda la aplicación
+    private static final LibroFactory FICCION = new FiccionFactory();
+    private static final LibroFactory NO_FICCION = new NoFiccionFactory();
+
     public abstract Libro crearLibro(String titulo, String autor, FormatoLibro formato);
 
     public static LibroFactory getFactory(TipoLibro tipo) {
         return switch (tipo) {
-            case FICCION -> new FiccionFactory();
-            case NO_FICCION -> new NoFiccionFactory();
+            case FICCION -> FICCION;
+            case NO_FICCION -> NO_FICCION;
         };
     }
 }
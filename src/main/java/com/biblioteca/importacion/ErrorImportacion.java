@@ -0,0 +1,5 @@
+package com.biblioteca.importacion;
+
+// Fila rechazada: número de línea del cuerpo (empezando en 1) y motivo
+public record ErrorImportacion(long linea, String motivo) {
+}
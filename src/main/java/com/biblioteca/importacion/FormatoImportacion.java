@@ -0,0 +1,6 @@
+package com.biblioteca.importacion;
+
+public enum FormatoImportacion {
+    NDJSON,
+    CSV
+}
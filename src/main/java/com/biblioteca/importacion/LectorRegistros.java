@@ -0,0 +1,99 @@
+package com.biblioteca.importacion;
+
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.TipoLibro;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interpreta las líneas de una importación masiva.
+ * NDJSON: {"titulo":"...","autor":"...","tipo":"FICCION","formato":"FISICO"}
+ * CSV:    titulo,autor,tipo,formato (cabecera opcional, campos entre comillas admitidos)
+ */
+@Component
+public class LectorRegistros {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public RegistroImportacion leer(String linea, FormatoImportacion formato) {
+        return formato == FormatoImportacion.CSV ? leerCsv(linea) : leerNdjson(linea);
+    }
+
+    public boolean esCabecera(String linea, FormatoImportacion formato) {
+        return formato == FormatoImportacion.CSV
+            && separarCsv(linea).get(0).equalsIgnoreCase("titulo");
+    }
+
+    private RegistroImportacion leerNdjson(String linea) {
+        try {
+            JsonNode nodo = objectMapper.readTree(linea);
+            return crear(texto(nodo, "titulo"), texto(nodo, "autor"), texto(nodo, "tipo"), texto(nodo, "formato"));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+        }
+    }
+
+    private RegistroImportacion leerCsv(String linea) {
+        List<String> campos = separarCsv(linea);
+        if (campos.size() != 4) {
+            throw new IllegalArgumentException("Se esperaban 4 columnas (titulo,autor,tipo,formato) y hay " + campos.size());
+        }
+        return crear(campos.get(0), campos.get(1), campos.get(2), campos.get(3));
+    }
+
+    private RegistroImportacion crear(String titulo, String autor, String tipo, String formato) {
+        return new RegistroImportacion(titulo, autor,
+            enumerado(TipoLibro.class, tipo, "tipo"),
+            enumerado(FormatoLibro.class, formato, "formato"));
+    }
+
+    private static String texto(JsonNode nodo, String campo) {
+        JsonNode valor = nodo.get(campo);
+        return valor == null || valor.isNull() ? null : valor.asText();
+    }
+
+    private static <E extends Enum<E>> E enumerado(Class<E> tipo, String valor, String campo) {
+        if (valor == null || valor.isBlank()) {
+            return null; // Lo rechaza ValidadorCamposObligatorios
+        }
+        try {
+            return Enum.valueOf(tipo, valor.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor de " + campo + " desconocido: " + valor);
+        }
+    }
+
+    private static List<String> separarCsv(String linea) {
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(actual.toString().trim());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString().trim());
+        return campos;
+    }
+}
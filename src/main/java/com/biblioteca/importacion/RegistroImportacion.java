@@ -0,0 +1,8 @@
+package com.biblioteca.importacion;
+
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.TipoLibro;
+
+// Una fila de la importación masiva ya interpretada
+public record RegistroImportacion(String titulo, String autor, TipoLibro tipo, FormatoLibro formato) {
+}
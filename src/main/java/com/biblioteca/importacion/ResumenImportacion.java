@@ -0,0 +1,41 @@
+package com.biblioteca.importacion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resultado de una importación masiva. Solo conserva el detalle de los primeros
+ * errores para que una carga con millones de filas inválidas no crezca sin límite.
+ */
+public class ResumenImportacion {
+    static final int MAX_ERRORES_DETALLADOS = 100;
+
+    private final AtomicLong aceptados = new AtomicLong();
+    private final AtomicLong rechazados = new AtomicLong();
+    private final List<ErrorImportacion> errores = Collections.synchronizedList(new ArrayList<>());
+
+    public void sumarAceptados(long cantidad) {
+        aceptados.addAndGet(cantidad);
+    }
+
+    public void rechazar(long linea, String motivo) {
+        rechazados.incrementAndGet();
+        if (errores.size() < MAX_ERRORES_DETALLADOS) {
+            errores.add(new ErrorImportacion(linea, motivo));
+        }
+    }
+
+    public long getAceptados() {
+        return aceptados.get();
+    }
+
+    public long getRechazados() {
+        return rechazados.get();
+    }
+
+    public List<ErrorImportacion> getErrores() {
+        return errores;
+    }
+}
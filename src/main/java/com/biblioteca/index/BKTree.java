@@ -0,0 +1,112 @@
+package com.biblioteca.index;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Árbol BK sobre la distancia de Levenshtein. Cada hijo cuelga de su padre según la distancia
+ * entre ambos, y la desigualdad triangular permite descartar ramas enteras: para una distancia
+ * máxima d desde un nodo a distancia k solo se visitan los hijos entre k - d y k + d.
+ * Las inserciones se serializan; las búsquedas no bloquean.
+ */
+public class BKTree {
+    private volatile Nodo raiz;
+    private int size;
+
+    public synchronized void agregar(String termino) {
+        if (raiz == null) {
+            raiz = new Nodo(termino);
+            size++;
+            return;
+        }
+        Nodo actual = raiz;
+        while (true) {
+            int distancia = distancia(actual.termino, termino, Integer.MAX_VALUE);
+            if (distancia == 0) {
+                return;
+            }
+            Nodo hijo = actual.hijos.get(distancia);
+            if (hijo == null) {
+                actual.hijos.put(distancia, new Nodo(termino));
+                size++;
+                return;
+            }
+            actual = hijo;
+        }
+    }
+
+    // Entrega cada término a distancia <= distanciaMaxima del buscado
+    public void buscar(String termino, int distanciaMaxima, Consumer<String> encontrado) {
+        Nodo inicio = raiz;
+        if (inicio == null) {
+            return;
+        }
+        Deque<Nodo> pendientes = new ArrayDeque<>();
+        pendientes.push(inicio);
+        while (!pendientes.isEmpty()) {
+            Nodo nodo = pendientes.pop();
+            // Sin cota: la distancia exacta hace falta para elegir qué hijos visitar
+            int distancia = distancia(nodo.termino, termino, Integer.MAX_VALUE);
+            if (distancia <= distanciaMaxima) {
+                encontrado.accept(nodo.termino);
+            }
+            int desde = distancia - distanciaMaxima;
+            int hasta = distancia + distanciaMaxima;
+            nodo.hijos.forEach((arista, hijo) -> {
+                if (arista >= desde && arista <= hasta) {
+                    pendientes.push(hijo);
+                }
+            });
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Distancia de Levenshtein con dos filas. Si todas las celdas de una fila superan la cota
+     * el resultado ya no puede bajar de ella y se devuelve cota + 1 sin terminar la matriz.
+     */
+    public static int distancia(String a, String b, int cota) {
+        if (Math.abs(a.length() - b.length()) > cota) {
+            return cota + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = anterior[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > cota) {
+                return cota + 1;
+            }
+            int[] intercambio = anterior;
+            anterior = actual;
+            actual = intercambio;
+        }
+        // La última fila puede quedar por debajo de la cota aunque su última celda la supere
+        int resultado = anterior[b.length()];
+        return resultado > cota ? cota + 1 : resultado;
+    }
+
+    private static final class Nodo {
+        private final String termino;
+        private final Map<Integer, Nodo> hijos = new ConcurrentHashMap<>(4);
+
+        private Nodo(String termino) {
+            this.termino = termino;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.biblioteca.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice invertido con puntuación BM25 (término -> frecuencia en cada documento).
+ * Solo se puntúan los documentos que contienen algún término del criterio, y los K mejores
+ * se eligen con un montículo acotado: el coste crece con K y no con el total de coincidencias.
+ */
+public class Bm25Index {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Mejor puntuación primero; a igual puntuación, el id más bajo
+    private static final Comparator<Resultado> POR_RELEVANCIA =
+        Comparator.comparingDouble(Resultado::puntuacion).reversed().thenComparing(Resultado::id);
+
+    private final Map<String, Map<Long, Integer>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Documento> documentos = new ConcurrentHashMap<>();
+    private final AtomicLong longitudTotal = new AtomicLong();
+
+    public record Resultado(Long id, double puntuacion) {
+    }
+
+    /**
+     * Indexa (o reindexa) los términos ya normalizados de un documento
+     */
+    public void indexar(Long id, List<String> terminos) {
+        Map<String, Integer> frecuencias = new HashMap<>();
+        for (String termino : terminos) {
+            frecuencias.merge(termino, 1, Integer::sum);
+        }
+        Documento nuevo = new Documento(terminos.size(), frecuencias);
+        Documento anterior = documentos.put(id, nuevo);
+        if (nuevo.equals(anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            anterior.frecuencias().keySet().forEach(termino -> {
+                Map<Long, Integer> ids = postings.get(termino);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            });
+            longitudTotal.addAndGet(-anterior.longitud());
+        }
+        frecuencias.forEach((termino, frecuencia) ->
+            postings.computeIfAbsent(termino, k -> new ConcurrentHashMap<>()).put(id, frecuencia));
+        longitudTotal.addAndGet(nuevo.longitud());
+    }
+
+    /**
+     * Los documentos en las posiciones [desplazamiento, desplazamiento + k) del ranking,
+     * de mayor a menor puntuación
+     */
+    public List<Resultado> buscar(List<String> terminosConsulta, int k, int desplazamiento) {
+        int total = documentos.size();
+        if (total == 0 || k <= 0 || terminosConsulta.isEmpty()) {
+            return List.of();
+        }
+        double longitudMedia = Math.max(1.0, (double) longitudTotal.get() / total);
+
+        Map<Long, Double> puntuaciones = new HashMap<>();
+        for (String termino : new LinkedHashSet<>(terminosConsulta)) {
+            Map<Long, Integer> ids = postings.get(termino);
+            if (ids == null || ids.isEmpty()) {
+                continue;
+            }
+            double idf = Math.log(1 + (total - ids.size() + 0.5) / (ids.size() + 0.5));
+            ids.forEach((id, frecuencia) -> {
+                Documento documento = documentos.get(id);
+                if (documento == null) {
+                    return;
+                }
+                double normalizacion = K1 * (1 - B + B * documento.longitud() / longitudMedia);
+                double puntuacion = idf * frecuencia * (K1 + 1) / (frecuencia + normalizacion);
+                puntuaciones.merge(id, puntuacion, Double::sum);
+            });
+        }
+
+        // Montículo de mínimos con los mejores vistos: su cima es el peor de ellos y se expulsa al llenarse
+        int capacidad = (int) Math.min((long) k + desplazamiento, Integer.MAX_VALUE);
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(
+            Math.min(capacidad, puntuaciones.size() + 1), POR_RELEVANCIA.reversed());
+        puntuaciones.forEach((id, puntuacion) -> {
+            Resultado resultado = new Resultado(id, puntuacion);
+            if (mejores.size() < capacidad) {
+                mejores.offer(resultado);
+            } else if (POR_RELEVANCIA.compare(resultado, mejores.peek()) < 0) {
+                mejores.poll();
+                mejores.offer(resultado);
+            }
+        });
+
+        List<Resultado> ranking = new ArrayList<>(mejores);
+        ranking.sort(POR_RELEVANCIA);
+        return desplazamiento >= ranking.size() ? List.of() : ranking.subList(desplazamiento, ranking.size());
+    }
+
+    public int size() {
+        return documentos.size();
+    }
+
+    private record Documento(int longitud, Map<String, Integer> frecuencias) {
+    }
+}
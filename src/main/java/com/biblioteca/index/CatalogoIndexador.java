@@ -0,0 +1,40 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.repository.LibroRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Construye los índices en memoria al arrancar y los mantiene al día
+ * con cada libro que LibroService guarda.
+ */
+@Component
+public class CatalogoIndexador {
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private List<IndiceCatalogo> indices;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construirIndices() {
+        libroRepository.findAll()
+            .doOnNext(this::indexar)
+            .count()
+            .subscribe(
+                total -> {
+                    indices.forEach(IndiceCatalogo::cargaCompletada);
+                    System.out.println("✓ Índices del catálogo construidos con " + total + " libros");
+                },
+                error -> System.err.println("✗ No se pudieron construir los índices: " + error.getMessage()));
+    }
+
+    public void indexar(Libro libro) {
+        indices.forEach(indice -> indice.indexar(libro));
+    }
+}
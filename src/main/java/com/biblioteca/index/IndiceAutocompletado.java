@@ -0,0 +1,119 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Sugerencia;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocompletado de títulos y autores. Cada título o autor distinto es una sugerencia cuyo peso
+ * es su popularidad: libros del catálogo con ese texto más préstamos registrados desde el arranque.
+ * Se puede llegar a una sugerencia desde el principio de cualquiera de sus palabras
+ * ("marq" -> "Gabriel García Márquez"), sin distinguir tildes ni mayúsculas.
+ */
+@Component
+public class IndiceAutocompletado implements IndiceCatalogo {
+    public static final String CAMPO_TITULO = "titulo";
+    public static final String CAMPO_AUTOR = "autor";
+
+    private final TrieAutocompletado trie;
+    private final Map<Long, LibroIndexado> libros = new HashMap<>();
+    private final Map<String, Popularidad> popularidad = new HashMap<>();
+
+    public IndiceAutocompletado(@Value("${biblioteca.autocompletado.sugerencias-por-nodo:10}") int sugerenciasPorNodo) {
+        this.trie = new TrieAutocompletado(sugerenciasPorNodo);
+    }
+
+    @Override
+    public synchronized void indexar(Libro libro) {
+        if (libro.getId() == null) {
+            return;
+        }
+        LibroIndexado nuevo = new LibroIndexado(clave(libro.getTitulo()), libro.getTitulo(),
+            clave(libro.getAutor()), libro.getAutor(), libro.getEstado());
+        LibroIndexado anterior = libros.put(libro.getId(), nuevo);
+        if (anterior != null && anterior.mismoTexto(nuevo)) {
+            // Solo ha cambiado el estado: cada préstamo suma popularidad al título y al autor
+            if (anterior.estado() != EstadoLibro.PRESTADO && nuevo.estado() == EstadoLibro.PRESTADO) {
+                sumar(CAMPO_TITULO, nuevo.claveTitulo(), nuevo.titulo(), 0, 1);
+                sumar(CAMPO_AUTOR, nuevo.claveAutor(), nuevo.autor(), 0, 1);
+            }
+            return;
+        }
+        if (anterior != null) {
+            sumar(CAMPO_TITULO, anterior.claveTitulo(), anterior.titulo(), -1, 0);
+            sumar(CAMPO_AUTOR, anterior.claveAutor(), anterior.autor(), -1, 0);
+        }
+        sumar(CAMPO_TITULO, nuevo.claveTitulo(), nuevo.titulo(), 1, 0);
+        sumar(CAMPO_AUTOR, nuevo.claveAutor(), nuevo.autor(), 1, 0);
+    }
+
+    public List<Sugerencia> completar(String prefijo, int limite) {
+        String clave = clave(prefijo);
+        if (clave.isEmpty()) {
+            return List.of();
+        }
+        // "el " ya cerró la palabra: debe completar "El Quijote" pero no "Elefantes"
+        if (!Character.isLetterOrDigit(prefijo.charAt(prefijo.length() - 1))) {
+            clave += " ";
+        }
+        return trie.completar(clave, limite);
+    }
+
+    public int getSugerencias() {
+        return trie.size();
+    }
+
+    private void sumar(String campo, String clave, String texto, int libros, int prestamos) {
+        if (clave.isEmpty()) {
+            return;
+        }
+        String id = campo + ":" + clave;
+        Popularidad actual = popularidad.computeIfAbsent(id, k -> new Popularidad(texto));
+        actual.libros += libros;
+        actual.prestamos += prestamos;
+        // Sin libros que la respalden la sugerencia se retira (peso 0), aunque tuviera préstamos
+        long peso = actual.libros > 0 ? actual.libros + actual.prestamos : 0;
+        if (peso == 0) {
+            popularidad.remove(id);
+        }
+        trie.actualizar(id, new Sugerencia(actual.texto, campo, peso), claves(clave));
+    }
+
+    // La frase completa y lo que queda desde cada palabra: "gabriel garcia marquez", "garcia marquez", "marquez"
+    private static List<String> claves(String clave) {
+        List<String> claves = new ArrayList<>();
+        claves.add(clave);
+        for (int i = clave.indexOf(' '); i >= 0; i = clave.indexOf(' ', i + 1)) {
+            claves.add(clave.substring(i + 1));
+        }
+        return claves;
+    }
+
+    private static String clave(String texto) {
+        return String.join(" ", Normalizador.terminos(texto));
+    }
+
+    private record LibroIndexado(String claveTitulo, String titulo, String claveAutor, String autor,
+                                 EstadoLibro estado) {
+        boolean mismoTexto(LibroIndexado otro) {
+            return claveTitulo.equals(otro.claveTitulo) && claveAutor.equals(otro.claveAutor);
+        }
+    }
+
+    // El texto que se muestra es el del primer libro que aportó la sugerencia
+    private static final class Popularidad {
+        private final String texto;
+        private long libros;
+        private long prestamos;
+
+        private Popularidad(String texto) {
+            this.texto = texto;
+        }
+    }
+}
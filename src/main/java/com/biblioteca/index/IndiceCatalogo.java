@@ -0,0 +1,12 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Libro;
+
+// Índice en memoria del catálogo que se mantiene sincronizado con cada escritura
+public interface IndiceCatalogo {
+    void indexar(Libro libro);
+
+    // Se invoca cuando termina la carga inicial desde la base de datos
+    default void cargaCompletada() {
+    }
+}
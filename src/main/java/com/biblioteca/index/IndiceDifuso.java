@@ -0,0 +1,134 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Libro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice para búsquedas tolerantes a tildes y erratas sobre título y autor.
+ * Al escribir un libro se guardan sus términos normalizados (término -> IDs) y cada término
+ * distinto entra en un árbol BK. Una búsqueda recorre solo las ramas del árbol a distancia
+ * alcanzable de cada palabra del criterio, en lugar de comparar con todo el catálogo.
+ */
+@Component
+public class IndiceDifuso implements IndiceCatalogo {
+    private final BKTree vocabulario = new BKTree();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> terminosPorLibro = new ConcurrentHashMap<>();
+    private final int distanciaMaxima;
+    private volatile boolean listo;
+
+    public IndiceDifuso(@Value("${biblioteca.busqueda.difusa.distancia-maxima:2}") int distanciaMaxima) {
+        this.distanciaMaxima = distanciaMaxima;
+    }
+
+    @Override
+    public void indexar(Libro libro) {
+        if (libro.getId() == null) {
+            return;
+        }
+        Long id = libro.getId();
+        Set<String> terminos = terminos(libro);
+        Set<String> anteriores = terminosPorLibro.put(id, terminos);
+        if (terminos.equals(anteriores)) {
+            return;
+        }
+        if (anteriores != null) {
+            for (String termino : anteriores) {
+                Set<Long> ids = postings.get(termino);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+        // Los términos que se quedan sin libros siguen en el árbol y simplemente no aportan IDs
+        for (String termino : terminos) {
+            postings.computeIfAbsent(termino, k -> {
+                vocabulario.agregar(k);
+                return ConcurrentHashMap.newKeySet();
+            }).add(id);
+        }
+    }
+
+    @Override
+    public void cargaCompletada() {
+        this.listo = true;
+    }
+
+    // Mientras no termine la carga inicial las búsquedas deben usar el recorrido completo
+    public boolean isListo() {
+        return listo;
+    }
+
+    /**
+     * IDs de los libros en los que cada palabra del criterio aparece en el título o el autor
+     * con, como mucho, las erratas que permite su longitud.
+     */
+    public Set<Long> buscar(String criterio) {
+        List<String> palabras = Normalizador.terminos(criterio);
+        if (palabras.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<Set<Long>> porPalabra = new ArrayList<>(palabras.size());
+        for (String palabra : new LinkedHashSet<>(palabras)) {
+            Set<Long> ids = new HashSet<>();
+            vocabulario.buscar(palabra, erratasPermitidas(palabra), termino -> {
+                Set<Long> libros = postings.get(termino);
+                if (libros != null) {
+                    ids.addAll(libros);
+                }
+            });
+            if (ids.isEmpty()) {
+                return Collections.emptySet();
+            }
+            porPalabra.add(ids);
+        }
+        porPalabra.sort(Comparator.comparingInt(Set::size));
+        Set<Long> resultado = porPalabra.get(0);
+        for (int i = 1; i < porPalabra.size(); i++) {
+            resultado.retainAll(porPalabra.get(i));
+        }
+        return resultado;
+    }
+
+    // La misma regla sin índice, para filtrar un libro suelto mientras se carga el catálogo
+    public boolean coincide(Libro libro, String criterio) {
+        Set<String> terminos = terminos(libro);
+        List<String> palabras = Normalizador.terminos(criterio);
+        if (palabras.isEmpty()) {
+            return false;
+        }
+        for (String palabra : palabras) {
+            int erratas = erratasPermitidas(palabra);
+            if (terminos.stream().noneMatch(termino -> BKTree.distancia(palabra, termino, erratas) <= erratas)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getTerminosDistintos() {
+        return vocabulario.size();
+    }
+
+    // Palabras cortas exactas, una errata hasta 5 letras y dos a partir de 6, sin pasar del máximo configurado
+    private int erratasPermitidas(String palabra) {
+        int erratas = palabra.length() <= 2 ? 0 : palabra.length() <= 5 ? 1 : 2;
+        return Math.min(erratas, distanciaMaxima);
+    }
+
+    private static Set<String> terminos(Libro libro) {
+        Set<String> terminos = new HashSet<>(Normalizador.terminos(libro.getTitulo()));
+        terminos.addAll(Normalizador.terminos(libro.getAutor()));
+        return terminos;
+    }
+}
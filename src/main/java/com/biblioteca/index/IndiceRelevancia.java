@@ -0,0 +1,43 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Libro;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+
+// Índice BM25 sobre título, autor y descripción para la búsqueda ordenada por relevancia
+@Component
+public class IndiceRelevancia implements IndiceCatalogo {
+    private final Bm25Index indice = new Bm25Index();
+    private volatile boolean listo;
+
+    @Override
+    public void indexar(Libro libro) {
+        if (libro.getId() == null) {
+            return;
+        }
+        indice.indexar(libro.getId(), terminos(libro));
+    }
+
+    @Override
+    public void cargaCompletada() {
+        this.listo = true;
+    }
+
+    // Mientras no termine la carga inicial las búsquedas deben usar el recorrido completo
+    public boolean isListo() {
+        return listo;
+    }
+
+    public List<Bm25Index.Resultado> buscar(String criterio, int k, int desplazamiento) {
+        return indice.buscar(Normalizador.terminos(criterio), k, desplazamiento);
+    }
+
+    // Se indexa la descripción persistida, no el texto compuesto que ya repite título y autor
+    public static List<String> terminos(Libro libro) {
+        List<String> terminos = new ArrayList<>(Normalizador.terminos(libro.getTitulo()));
+        terminos.addAll(Normalizador.terminos(libro.getAutor()));
+        terminos.addAll(Normalizador.terminos(libro.getDescripcionOriginal()));
+        return terminos;
+    }
+}
@@ -0,0 +1,44 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Libro;
+import org.springframework.stereotype.Component;
+import java.util.Set;
+
+// Índice de trigramas sobre título y autor para búsquedas por subcadena
+@Component
+public class IndiceTrigramas implements IndiceCatalogo {
+    private final TrigramIndex titulos = new TrigramIndex();
+    private final TrigramIndex autores = new TrigramIndex();
+    private volatile boolean listo;
+
+    @Override
+    public void indexar(Libro libro) {
+        if (libro.getId() == null) {
+            return;
+        }
+        titulos.indexar(libro.getId(), libro.getTitulo());
+        autores.indexar(libro.getId(), libro.getAutor());
+    }
+
+    @Override
+    public void cargaCompletada() {
+        this.listo = true;
+    }
+
+    // Mientras no termine la carga inicial las búsquedas deben usar el recorrido completo
+    public boolean isListo() {
+        return listo;
+    }
+
+    public Set<Long> buscarPorTitulo(String criterio) {
+        return titulos.buscar(criterio);
+    }
+
+    public Set<Long> buscarPorAutor(String criterio) {
+        return autores.buscar(criterio);
+    }
+
+    public int getTotalIndexados() {
+        return titulos.size();
+    }
+}
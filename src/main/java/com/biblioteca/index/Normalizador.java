@@ -0,0 +1,56 @@
+package com.biblioteca.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Forma canónica del texto para indexar y buscar: descompuesto (NFD), sin diacríticos
+ * y en minúsculas, de modo que "García Márquez" y "garcia marquez" producen la misma clave.
+ */
+public final class Normalizador {
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+
+    private Normalizador() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        // El texto ASCII no tiene nada que descomponer: basta con pasarlo a minúsculas
+        if (esAscii(texto)) {
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return DIACRITICOS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    // Palabras del texto normalizado; guiones, apóstrofos y signos separan ("saint-exupery" -> saint, exupery)
+    public static List<String> terminos(String texto) {
+        String normalizado = normalizar(texto);
+        List<String> terminos = new ArrayList<>();
+        int inicio = -1;
+        for (int i = 0; i <= normalizado.length(); i++) {
+            boolean alfanumerico = i < normalizado.length() && Character.isLetterOrDigit(normalizado.charAt(i));
+            if (alfanumerico && inicio < 0) {
+                inicio = i;
+            } else if (!alfanumerico && inicio >= 0) {
+                terminos.add(normalizado.substring(inicio, i));
+                inicio = -1;
+            }
+        }
+        return terminos;
+    }
+
+    private static boolean esAscii(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Sugerencia;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trie de prefijos en el que cada nodo guarda ya ordenadas sus N mejores sugerencias,
+ * así que completar un prefijo es bajar tantos nodos como caracteres tiene y copiar una lista.
+ * Los hijos son arrays ordenados por carácter (más compactos que un mapa por nodo) y tanto
+ * los hijos como las sugerencias se sustituyen enteros al escribir: las lecturas no bloquean.
+ */
+public class TrieAutocompletado {
+    // Más peso primero; a igual peso, orden alfabético para que el resultado sea estable
+    private static final Comparator<Entrada> POR_PESO = Comparator.comparingLong(Entrada::peso).reversed()
+        .thenComparing(Entrada::id);
+
+    private final Nodo raiz = new Nodo('\0');
+    private final int sugerenciasPorNodo;
+    private final Map<String, Entrada> vigentes = new HashMap<>();
+
+    public TrieAutocompletado(int sugerenciasPorNodo) {
+        this.sugerenciasPorNodo = sugerenciasPorNodo;
+    }
+
+    /**
+     * Da de alta, actualiza el peso o (con peso 0) retira la sugerencia "id", alcanzable por cada una
+     * de las claves normalizadas. Una sugerencia siempre se registra con las mismas claves.
+     */
+    public synchronized void actualizar(String id, Sugerencia sugerencia, List<String> claves) {
+        Entrada nueva = sugerencia.peso() > 0 ? new Entrada(id, sugerencia) : null;
+        if (nueva == null) {
+            vigentes.remove(id);
+        } else {
+            vigentes.put(id, nueva);
+        }
+        Set<Nodo> visitados = new HashSet<>();
+        for (String clave : claves) {
+            Nodo nodo = raiz;
+            for (int i = 0; i < clave.length(); i++) {
+                nodo = nodo.hijoOCrear(clave.charAt(i));
+                if (visitados.add(nodo)) {
+                    actualizarMejores(nodo, id, nueva);
+                }
+            }
+            if (nueva == null) {
+                nodo.terminales.remove(id);
+            } else {
+                nodo.terminales.add(id);
+            }
+        }
+    }
+
+    // Como mucho "limite" sugerencias (y nunca más de las que guarda cada nodo)
+    public List<Sugerencia> completar(String prefijo, int limite) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < prefijo.length() && nodo != null; i++) {
+            nodo = nodo.hijo(prefijo.charAt(i));
+        }
+        if (nodo == null || nodo == raiz) {
+            return List.of();
+        }
+        Entrada[] mejores = nodo.mejores;
+        int total = Math.min(limite, mejores.length);
+        List<Sugerencia> resultado = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            resultado.add(mejores[i].sugerencia());
+        }
+        return resultado;
+    }
+
+    public synchronized int size() {
+        return vigentes.size();
+    }
+
+    private void actualizarMejores(Nodo nodo, String id, Entrada nueva) {
+        Entrada[] actuales = nodo.mejores;
+        int posicion = -1;
+        for (int i = 0; i < actuales.length; i++) {
+            if (actuales[i].id().equals(id)) {
+                posicion = i;
+                break;
+            }
+        }
+        // Si baja o sale una de una lista llena, la siguiente mejor del subárbol no está en la lista:
+        // solo entonces se recalcula recorriendo los terminales que cuelgan del nodo
+        boolean empeora = posicion >= 0 && (nueva == null || nueva.peso() < actuales[posicion].peso());
+        if (empeora && actuales.length == sugerenciasPorNodo) {
+            nodo.mejores = recalcular(nodo);
+            return;
+        }
+        List<Entrada> lista = new ArrayList<>(Arrays.asList(actuales));
+        if (posicion >= 0) {
+            lista.remove(posicion);
+        }
+        if (nueva != null) {
+            lista.add(nueva);
+        }
+        lista.sort(POR_PESO);
+        nodo.mejores = lista.subList(0, Math.min(lista.size(), sugerenciasPorNodo)).toArray(Entrada[]::new);
+    }
+
+    private Entrada[] recalcular(Nodo nodo) {
+        Set<String> ids = new HashSet<>();
+        List<Nodo> pendientes = new ArrayList<>(List.of(nodo));
+        while (!pendientes.isEmpty()) {
+            Nodo actual = pendientes.remove(pendientes.size() - 1);
+            ids.addAll(actual.terminales);
+            pendientes.addAll(Arrays.asList(actual.hijos));
+        }
+        return ids.stream()
+            .map(vigentes::get)
+            .filter(entrada -> entrada != null)
+            .sorted(POR_PESO)
+            .limit(sugerenciasPorNodo)
+            .toArray(Entrada[]::new);
+    }
+
+    private record Entrada(String id, Sugerencia sugerencia) {
+        long peso() {
+            return sugerencia.peso();
+        }
+    }
+
+    private static final class Nodo {
+        private static final Nodo[] SIN_HIJOS = new Nodo[0];
+        private static final Entrada[] SIN_SUGERENCIAS = new Entrada[0];
+
+        private final char caracter;
+        private volatile Nodo[] hijos = SIN_HIJOS;
+        private volatile Entrada[] mejores = SIN_SUGERENCIAS;
+        // Solo lo usan las escrituras (bajo el cerrojo del trie)
+        private final Set<String> terminales = new HashSet<>(2);
+
+        private Nodo(char caracter) {
+            this.caracter = caracter;
+        }
+
+        private Nodo hijo(char c) {
+            Nodo[] actuales = hijos;
+            int posicion = buscar(actuales, c);
+            return posicion >= 0 ? actuales[posicion] : null;
+        }
+
+        private Nodo hijoOCrear(char c) {
+            Nodo[] actuales = hijos;
+            int posicion = buscar(actuales, c);
+            if (posicion >= 0) {
+                return actuales[posicion];
+            }
+            int insercion = -posicion - 1;
+            Nodo nuevo = new Nodo(c);
+            Nodo[] ampliados = new Nodo[actuales.length + 1];
+            System.arraycopy(actuales, 0, ampliados, 0, insercion);
+            ampliados[insercion] = nuevo;
+            System.arraycopy(actuales, insercion, ampliados, insercion + 1, actuales.length - insercion);
+            hijos = ampliados;
+            return nuevo;
+        }
+
+        // Búsqueda binaria por carácter; si no está devuelve -(punto de inserción) - 1
+        private static int buscar(Nodo[] nodos, char c) {
+            int desde = 0;
+            int hasta = nodos.length - 1;
+            while (desde <= hasta) {
+                int medio = (desde + hasta) >>> 1;
+                char actual = nodos[medio].caracter;
+                if (actual < c) {
+                    desde = medio + 1;
+                } else if (actual > c) {
+                    hasta = medio - 1;
+                } else {
+                    return medio;
+                }
+            }
+            return -(desde + 1);
+        }
+    }
+}
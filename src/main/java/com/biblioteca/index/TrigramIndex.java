@@ -0,0 +1,111 @@
+package com.biblioteca.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de trigramas sobre un campo de texto (trigrama -> IDs de libros).
+ * Una búsqueda por subcadena intersecta las listas de sus trigramas y solo
+ * verifica los IDs candidatos, en lugar de recorrer todo el catálogo.
+ */
+public class TrigramIndex {
+    private static final int N = 3;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+    private final Map<Long, String> valores = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa (o reindexa) el valor del campo para un libro
+     */
+    public void indexar(Long id, String valor) {
+        String normalizado = normalizar(valor);
+        String anterior = valores.put(id, normalizado);
+        if (normalizado.equals(anterior)) {
+            return;
+        }
+        if (anterior != null) {
+            for (String trigrama : trigramas(anterior)) {
+                Set<Long> ids = postings.get(trigrama);
+                if (ids != null) {
+                    ids.remove(id);
+                }
+            }
+        }
+        for (String trigrama : trigramas(normalizado)) {
+            postings.computeIfAbsent(trigrama, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * Devuelve los IDs cuyo valor contiene el criterio, sin distinguir mayúsculas ni tildes
+     */
+    public Set<Long> buscar(String criterio) {
+        String patron = normalizar(criterio);
+        if (patron.length() < N) {
+            // Sin trigramas posibles: se verifica sobre los valores ya normalizados
+            Set<Long> resultado = new HashSet<>();
+            valores.forEach((id, valor) -> {
+                if (valor.contains(patron)) {
+                    resultado.add(id);
+                }
+            });
+            return resultado;
+        }
+
+        List<Set<Long>> listas = new ArrayList<>();
+        for (String trigrama : trigramas(patron)) {
+            Set<Long> ids = postings.get(trigrama);
+            if (ids == null || ids.isEmpty()) {
+                return Collections.emptySet();
+            }
+            listas.add(ids);
+        }
+        listas.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> resultado = new HashSet<>();
+        for (Long id : listas.get(0)) {
+            if (estaEnTodas(listas, id) && coincide(id, patron)) {
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    public int size() {
+        return valores.size();
+    }
+
+    private boolean estaEnTodas(List<Set<Long>> listas, Long id) {
+        for (int i = 1; i < listas.size(); i++) {
+            if (!listas.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Los trigramas solo filtran candidatos; la subcadena completa se confirma aquí
+    private boolean coincide(Long id, String patron) {
+        String valor = valores.get(id);
+        return valor != null && valor.contains(patron);
+    }
+
+    private static Set<String> trigramas(String texto) {
+        Set<String> resultado = new LinkedHashSet<>();
+        for (int i = 0; i + N <= texto.length(); i++) {
+            resultado.add(texto.substring(i, i + N));
+        }
+        return resultado;
+    }
+
+    private static String normalizar(String texto) {
+        return Normalizador.normalizar(texto);
+    }
+}
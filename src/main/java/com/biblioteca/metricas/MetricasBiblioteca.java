@@ -0,0 +1,117 @@
+package com.biblioteca.metricas;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.validator.ResultadoValidacion;
+import com.biblioteca.validator.Violacion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Métricas de las rutas calientes de LibroService. Los medidores se resuelven una vez por
+// operación, tipo de búsqueda o validador y se reutilizan; los histogramas de percentiles se
+// activan en application.properties (management.metrics.distribution.*).
+@Component
+public class MetricasBiblioteca {
+
+    private final MeterRegistry registro;
+    private final ConcurrentHashMap<String, Temporizadores> operaciones = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MedidoresBusqueda> busquedas = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> violaciones = new ConcurrentHashMap<>();
+
+    public MetricasBiblioteca(MeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    // Tiempo desde la suscripción hasta que la operación termina, con el resultado como etiqueta
+    public <T> Mono<T> medir(String operacion, Mono<T> mono) {
+        Temporizadores temporizadores = operaciones.computeIfAbsent(operacion,
+            nombre -> new Temporizadores(registro, "biblioteca.operacion", "operacion", nombre));
+        return Mono.defer(() -> {
+            Timer.Sample muestra = Timer.start(registro);
+            return mono.doFinally(senal -> muestra.stop(temporizadores.para(senal)));
+        });
+    }
+
+    // Búsqueda completa por tipo: tiempo, filas que se leyeron para filtrar en memoria y filas devueltas.
+    // Las estrategias que resuelven en SQL no consumen "fuente" y registran 0 filas leídas.
+    public Flux<Libro> medirBusqueda(String tipoBusqueda, Flux<Libro> fuente,
+                                     Function<Flux<Libro>, Flux<Libro>> busqueda) {
+        MedidoresBusqueda medidores = busquedas.computeIfAbsent(tipoBusqueda,
+            tipo -> new MedidoresBusqueda(registro, tipo));
+        return Flux.defer(() -> {
+            Timer.Sample muestra = Timer.start(registro);
+            long[] filas = new long[2];
+            return busqueda.apply(fuente.doOnNext(libro -> filas[0]++))
+                .doOnNext(libro -> filas[1]++)
+                .doFinally(senal -> {
+                    muestra.stop(medidores.tiempos.para(senal));
+                    medidores.leidas.record(filas[0]);
+                    medidores.devueltas.record(filas[1]);
+                });
+        });
+    }
+
+    public void registrarViolaciones(ResultadoValidacion resultado) {
+        for (Violacion violacion : resultado.getViolaciones()) {
+            violaciones.computeIfAbsent(violacion.validador(), validador -> Counter
+                .builder("biblioteca.validacion.fallos")
+                .description("Reglas incumplidas por validador de la cadena")
+                .tag("validador", validador)
+                .register(registro)).increment();
+        }
+    }
+
+    // Un Timer por resultado: completada, error o cancelada (p. ej. el cliente cerró la conexión)
+    private static final class Temporizadores {
+        private final Timer ok;
+        private final Timer error;
+        private final Timer cancelado;
+
+        Temporizadores(MeterRegistry registro, String nombre, String etiqueta, String valor) {
+            this.ok = crear(registro, nombre, etiqueta, valor, "ok");
+            this.error = crear(registro, nombre, etiqueta, valor, "error");
+            this.cancelado = crear(registro, nombre, etiqueta, valor, "cancelado");
+        }
+
+        private static Timer crear(MeterRegistry registro, String nombre, String etiqueta, String valor,
+                                   String resultado) {
+            return Timer.builder(nombre)
+                .tag(etiqueta, valor)
+                .tag("resultado", resultado)
+                .register(registro);
+        }
+
+        Timer para(SignalType senal) {
+            return switch (senal) {
+                case ON_ERROR -> error;
+                case CANCEL -> cancelado;
+                default -> ok;
+            };
+        }
+    }
+
+    private static final class MedidoresBusqueda {
+        private final Temporizadores tiempos;
+        private final DistributionSummary leidas;
+        private final DistributionSummary devueltas;
+
+        MedidoresBusqueda(MeterRegistry registro, String tipo) {
+            this.tiempos = new Temporizadores(registro, "biblioteca.busqueda", "tipo", tipo);
+            this.leidas = DistributionSummary.builder("biblioteca.busqueda.filas.leidas")
+                .description("Libros recorridos en memoria por búsqueda")
+                .tag("tipo", tipo)
+                .register(registro);
+            this.devueltas = DistributionSummary.builder("biblioteca.busqueda.filas.devueltas")
+                .description("Libros devueltos por búsqueda")
+                .tag("tipo", tipo)
+                .register(registro);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.biblioteca.model;
+
+import java.util.function.Function;
+
+// Campos de Libro que se pueden pedir con ?fields=, con su accesor resuelto de antemano
+public enum CampoLibro {
+    ID("id", Libro::getId),
+    TITULO("titulo", Libro::getTitulo),
+    AUTOR("autor", Libro::getAutor),
+    TIPO("tipo", Libro::getTipo),
+    FORMATO("formato", Libro::getFormato),
+    ESTADO("estado", Libro::getEstado),
+    DESCRIPCION("descripcion", Libro::getDescripcion);
+
+    private final String nombre;
+    private final Function<Libro, Object> accesor;
+
+    CampoLibro(String nombre, Function<Libro, Object> accesor) {
+        this.nombre = nombre;
+        this.accesor = accesor;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public Object leer(Libro libro) {
+        return accesor.apply(libro);
+    }
+
+    public static CampoLibro porNombre(String nombre) {
+        for (CampoLibro campo : values()) {
+            if (campo.nombre.equalsIgnoreCase(nombre)) {
+                return campo;
+            }
+        }
+        throw new IllegalArgumentException("Campo desconocido: " + nombre);
+    }
+}
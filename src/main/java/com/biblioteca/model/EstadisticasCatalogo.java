@@ -0,0 +1,12 @@
+package com.biblioteca.model;
+
+import java.util.Map;
+
+// Estadísticas del catálogo en memoria, listas para serializar como JSON.
+// total incluye los libros sin clasificar (tipo, formato o estado null), que no aparecen en los desgloses
+public record EstadisticasCatalogo(long total,
+                                   Map<TipoLibro, Long> porTipo,
+                                   Map<FormatoLibro, Long> porFormato,
+                                   Map<EstadoLibro, Long> porEstado,
+                                   long sinClasificar) {
+}
@@ -1,13 +1,13 @@
 package com.biblioteca.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 
 @Data
-@Builder
 @NoArgsConstructor
-@AllArgsConstructor
 @Table("libros")
 public class Libro implements ILibro {
     @Id
@@ -19,12 +19,79 @@ public class Libro implements ILibro {
     private EstadoLibro estado;
     private String descripcion;
 
+    // Texto compuesto de getDescripcion(), calculado en la primera llamada y descartado por
+    // cualquier setter de los campos que lo forman. Fuera del builder, de equals y de la tabla.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient String descripcionCompuesta;
+
+    // El builder va sobre el constructor para que no exponga descripcionCompuesta
+    @Builder(toBuilder = true)
+    public Libro(Long id, String titulo, String autor, TipoLibro tipo, FormatoLibro formato,
+                 EstadoLibro estado, String descripcion) {
+        this.id = id;
+        this.titulo = titulo;
+        this.autor = autor;
+        this.tipo = tipo;
+        this.formato = formato;
+        this.estado = estado;
+        this.descripcion = descripcion;
+    }
+
+    // Publicación benigna: String es inmutable y, en el peor caso, dos hilos lo calculan a la vez
     public String getDescripcion() {
+        String compuesta = descripcionCompuesta;
+        if (compuesta == null) {
+            compuesta = componerDescripcion();
+            descripcionCompuesta = compuesta;
+        }
+        return compuesta;
+    }
+
+    private String componerDescripcion() {
         if (descripcion != null && !descripcion.trim().isEmpty()) {
-            return String.format("%s - %s (%s, %s) - %s - Estado: %s",
-                titulo, autor, tipo, formato, descripcion, estado);
+            return titulo + " - " + autor + " (" + tipo + ", " + formato + ") - " + descripcion
+                + " - Estado: " + estado;
         }
-        return String.format("%s - %s (%s, %s) - Estado: %s",
-            titulo, autor, tipo, formato, estado);
+        return titulo + " - " + autor + " (" + tipo + ", " + formato + ") - Estado: " + estado;
+    }
+
+    // Descripción tal como se persiste, sin el texto compuesto de getDescripcion()
+    @JsonIgnore
+    public String getDescripcionOriginal() {
+        return descripcion;
+    }
+
+    public void setTitulo(String titulo) {
+        this.titulo = titulo;
+        this.descripcionCompuesta = null;
+    }
+
+    public void setAutor(String autor) {
+        this.autor = autor;
+        this.descripcionCompuesta = null;
+    }
+
+    public void setTipo(TipoLibro tipo) {
+        this.tipo = tipo;
+        this.descripcionCompuesta = null;
+    }
+
+    public void setFormato(FormatoLibro formato) {
+        this.formato = formato;
+        this.descripcionCompuesta = null;
+    }
+
+    public void setEstado(EstadoLibro estado) {
+        this.estado = estado;
+        this.descripcionCompuesta = null;
+    }
+
+    public void setDescripcion(String descripcion) {
+        this.descripcion = descripcion;
+        this.descripcionCompuesta = null;
     }
 }
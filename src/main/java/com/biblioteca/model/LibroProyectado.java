@@ -0,0 +1,36 @@
+package com.biblioteca.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+
+// Libro tal como sale en las respuestas de listado y búsqueda: el serializador escribe los campos
+// de la proyección directamente, sin mapas intermedios ni llamadas a los getters no pedidos.
+// Sirve igual para JSON, NDJSON, SSE y Smile.
+@JsonSerialize(using = LibroProyectado.Serializador.class)
+public record LibroProyectado(Libro libro, ProyeccionLibro proyeccion) {
+
+    public static class Serializador extends JsonSerializer<LibroProyectado> {
+        @Override
+        public void serialize(LibroProyectado valor, JsonGenerator gen, SerializerProvider proveedor)
+                throws IOException {
+            gen.writeStartObject();
+            for (CampoLibro campo : valor.proyeccion().getCampos()) {
+                Object dato = campo.leer(valor.libro());
+                gen.writeFieldName(campo.getNombre());
+                if (dato == null) {
+                    gen.writeNull();
+                } else if (dato instanceof Long numero) {
+                    gen.writeNumber(numero);
+                } else if (dato instanceof Enum<?> constante) {
+                    gen.writeString(constante.name());
+                } else {
+                    gen.writeString(dato.toString());
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.biblioteca.model;
+
+// Qué hacer con un lote de préstamos o devoluciones cuando algún libro no se puede procesar
+public enum ModoLote {
+    // Si un libro falla no se aplica ninguno
+    TODO_O_NADA,
+    // Se aplican los que se pueden y el resto se informa como rechazado
+    MEJOR_ESFUERZO
+}
@@ -0,0 +1,25 @@
+package com.biblioteca.model;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+// Página por cursor (keyset sobre id): libros con id > despuesDe, como mucho "limite", en orden de id
+public record Pagina(long despuesDe, int limite) {
+
+    private static final Sort ORDEN_ID = Sort.by("id");
+
+    // Sin límite: recorrer desde el cursor hasta el final (usado por las variantes en streaming)
+    public static Pagina desde(long despuesDe) {
+        return new Pagina(despuesDe, Integer.MAX_VALUE);
+    }
+
+    // Se traduce a ORDER BY id LIMIT n en las consultas derivadas de LibroRepository
+    public Pageable pageable() {
+        return PageRequest.of(0, limite, ORDEN_ID);
+    }
+
+    public boolean incluye(Long id) {
+        return id != null && id > despuesDe;
+    }
+}
@@ -0,0 +1,21 @@
+package com.biblioteca.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.LocalDateTime;
+
+// Asiento del historial de préstamos: solo se añaden filas, nunca se modifican
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("prestamos")
+public class Prestamo {
+    @Id
+    private Long id;
+    private Long libroId;
+    private String prestatario;
+    private TipoMovimiento tipo;
+    private LocalDateTime fecha;
+}
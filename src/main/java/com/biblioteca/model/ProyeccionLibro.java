@@ -0,0 +1,41 @@
+package com.biblioteca.model;
+
+import java.util.EnumSet;
+
+// Selección de campos para las respuestas (?fields=id,titulo,autor). Se analiza una vez por
+// petición; al serializar solo se llama a los accesores elegidos, en el orden de CampoLibro.
+public final class ProyeccionLibro {
+
+    public static final ProyeccionLibro COMPLETA = new ProyeccionLibro(CampoLibro.values());
+
+    private final CampoLibro[] campos;
+
+    private ProyeccionLibro(CampoLibro[] campos) {
+        this.campos = campos;
+    }
+
+    // Lanza IllegalArgumentException si algún nombre no corresponde a un campo
+    public static ProyeccionLibro analizar(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return COMPLETA;
+        }
+        EnumSet<CampoLibro> elegidos = EnumSet.noneOf(CampoLibro.class);
+        for (String nombre : fields.split(",")) {
+            if (!nombre.isBlank()) {
+                elegidos.add(CampoLibro.porNombre(nombre.trim()));
+            }
+        }
+        if (elegidos.isEmpty() || elegidos.size() == CampoLibro.values().length) {
+            return COMPLETA;
+        }
+        return new ProyeccionLibro(elegidos.toArray(new CampoLibro[0]));
+    }
+
+    public LibroProyectado aplicar(Libro libro) {
+        return new LibroProyectado(libro, this);
+    }
+
+    CampoLibro[] getCampos() {
+        return campos;
+    }
+}
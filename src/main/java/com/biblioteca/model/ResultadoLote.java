@@ -0,0 +1,18 @@
+package com.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Resultado de un préstamo o devolución por lotes: si se aplicaron cambios y el desenlace
+ * de cada libro en el mismo orden en que se pidieron.
+ */
+public record ResultadoLote(ModoLote modo, boolean aplicado, long aplicados, long rechazados, List<Elemento> libros) {
+
+    public static ResultadoLote de(ModoLote modo, List<Elemento> libros) {
+        long aplicados = libros.stream().filter(Elemento::exito).count();
+        return new ResultadoLote(modo, aplicados > 0, aplicados, libros.size() - aplicados, libros);
+    }
+
+    public record Elemento(Long id, boolean exito, String mensaje) {
+    }
+}
@@ -0,0 +1,5 @@
+package com.biblioteca.model;
+
+// Sugerencia de autocompletado: el texto tal como está en el catálogo, de qué campo sale y su popularidad
+public record Sugerencia(String texto, String campo, long peso) {
+}
@@ -0,0 +1,6 @@
+package com.biblioteca.observer;
+
+// Instantánea de un suscriptor del bus; lag = eventos recibidos aún sin entregar ni descartar
+public record MetricasObservador(String nombre, long recibidos, long entregados,
+                                 long descartados, long fallidos, long lag) {
+}
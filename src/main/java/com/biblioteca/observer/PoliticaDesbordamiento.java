@@ -0,0 +1,19 @@
+package com.biblioteca.observer;
+
+import reactor.core.publisher.BufferOverflowStrategy;
+
+// Qué hacer cuando la cola de un observador lento se llena
+public enum PoliticaDesbordamiento {
+    DESCARTAR_NUEVOS(BufferOverflowStrategy.DROP_LATEST),
+    DESCARTAR_ANTIGUOS(BufferOverflowStrategy.DROP_OLDEST);
+
+    private final BufferOverflowStrategy estrategia;
+
+    PoliticaDesbordamiento(BufferOverflowStrategy estrategia) {
+        this.estrategia = estrategia;
+    }
+
+    BufferOverflowStrategy getEstrategia() {
+        return estrategia;
+    }
+}
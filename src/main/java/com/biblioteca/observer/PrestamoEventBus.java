@@ -0,0 +1,102 @@
+package com.biblioteca.observer;
+
+import com.biblioteca.model.ILibro;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Patrón Observer asíncrono - El bus es el único observador que ve PrestamoDecorator.
+ * update() solo publica el evento en un sink multicast y vuelve de inmediato; cada
+ * observador registrado lo consume desde su propia cola acotada y en su propio hilo,
+ * así un observador lento (p. ej. uno que escribe en consola) no añade latencia
+ * a la petición de préstamo ni bloquea el event loop. Las emisiones se serializan con
+ * un monitor propio (el sink es "unsafe"), así que un publicador concurrente espera lo que
+ * tarda una emisión en lugar de girar en bucle sobre FAIL_NON_SERIALIZED.
+ */
+public class PrestamoEventBus implements Observer {
+    private static final int PREFETCH = 32;
+
+    // Sin comprobación de serialización interna: update() y cerrar() emiten bajo "this"
+    private final Sinks.Many<Evento> sink = Sinks.unsafe().many().multicast().directBestEffort();
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final int capacidad;
+    private final PoliticaDesbordamiento politica;
+
+    public PrestamoEventBus(int capacidad, PoliticaDesbordamiento politica) {
+        this.capacidad = capacidad;
+        this.politica = politica;
+    }
+
+    @Override
+    public void update(ILibro libro, String evento) {
+        Evento publicado = new Evento(libro, evento);
+        // Sin suscriptores o tras cerrar() el evento se descarta (FAIL_ZERO_SUBSCRIBER / FAIL_TERMINATED)
+        synchronized (this) {
+            sink.tryEmitNext(publicado);
+        }
+    }
+
+    public void suscribir(String nombre, Observer observer) {
+        Suscripcion suscripcion = new Suscripcion(nombre, Schedulers.newSingle("observer-" + nombre, true));
+        suscripcion.disposable = sink.asFlux()
+            .doOnNext(evento -> suscripcion.recibidos.incrementAndGet())
+            .onBackpressureBuffer(capacidad, evento -> suscripcion.descartados.incrementAndGet(),
+                politica.getEstrategia())
+            .publishOn(suscripcion.scheduler, PREFETCH)
+            .subscribe(evento -> {
+                try {
+                    observer.update(evento.libro(), evento.descripcion());
+                } catch (RuntimeException e) {
+                    suscripcion.fallidos.incrementAndGet();
+                } finally {
+                    suscripcion.entregados.incrementAndGet();
+                }
+            });
+        suscripciones.add(suscripcion);
+    }
+
+    public List<MetricasObservador> getMetricas() {
+        return suscripciones.stream().map(Suscripcion::metricas).toList();
+    }
+
+    public void cerrar() {
+        synchronized (this) {
+            sink.tryEmitComplete();
+        }
+        suscripciones.forEach(suscripcion -> {
+            suscripcion.disposable.dispose();
+            suscripcion.scheduler.dispose();
+        });
+    }
+
+    private record Evento(ILibro libro, String descripcion) {
+    }
+
+    private static class Suscripcion {
+        private final String nombre;
+        private final Scheduler scheduler;
+        private final AtomicLong recibidos = new AtomicLong();
+        private final AtomicLong entregados = new AtomicLong();
+        private final AtomicLong descartados = new AtomicLong();
+        private final AtomicLong fallidos = new AtomicLong();
+        private Disposable disposable;
+
+        Suscripcion(String nombre, Scheduler scheduler) {
+            this.nombre = nombre;
+            this.scheduler = scheduler;
+        }
+
+        MetricasObservador metricas() {
+            long entregadosAhora = entregados.get();
+            long descartadosAhora = descartados.get();
+            long recibidosAhora = recibidos.get();
+            return new MetricasObservador(nombre, recibidosAhora, entregadosAhora, descartadosAhora,
+                fallidos.get(), Math.max(0, recibidosAhora - entregadosAhora - descartadosAhora));
+        }
+    }
+}
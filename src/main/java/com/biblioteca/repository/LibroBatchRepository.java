@@ -0,0 +1,59 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.Libro;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import java.util.List;
+
+/**
+ * Inserciones por lotes: un único Statement con una vinculación por libro (Statement.add()),
+ * de modo que cada lote es un solo viaje a la base de datos.
+ */
+@Repository
+public class LibroBatchRepository {
+    private static final String INSERT =
+        "INSERT INTO libros (titulo, autor, tipo, formato, estado, descripcion) VALUES ($1, $2, $3, $4, $5, $6)";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    // Devuelve los libros del lote con el ID generado ya asignado
+    public Flux<Libro> insertarLote(List<Libro> lote) {
+        if (lote.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT).returnGeneratedValues("id");
+                for (int i = 0; i < lote.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    vincular(statement, lote.get(i));
+                }
+                return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get("id", Long.class)));
+            })
+            .index()
+            .map(idGenerado -> {
+                Libro libro = lote.get(idGenerado.getT1().intValue());
+                libro.setId(idGenerado.getT2());
+                return libro;
+            });
+    }
+
+    private static void vincular(Statement statement, Libro libro) {
+        statement.bind("$1", libro.getTitulo())
+            .bind("$2", libro.getAutor())
+            .bind("$3", libro.getTipo().name())
+            .bind("$4", libro.getFormato().name())
+            .bind("$5", libro.getEstado().name());
+        if (libro.getDescripcionOriginal() == null) {
+            statement.bindNull("$6", String.class);
+        } else {
+            statement.bind("$6", libro.getDescripcionOriginal());
+        }
+    }
+}
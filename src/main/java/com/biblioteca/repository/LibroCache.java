@@ -0,0 +1,77 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.Libro;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+
+/**
+ * Caché read-through de libros por ID delante de LibroRepository.findById.
+ * Caffeine expulsa con W-TinyLFU, que retiene los títulos consultados con más
+ * frecuencia aunque un recorrido puntual llene la caché de libros fríos.
+ * Las búsquedas simultáneas del mismo ID comparten una sola consulta a H2.
+ * Se devuelven copias: Libro es mutable y no debe modificarse la entrada cacheada.
+ */
+@Component
+public class LibroCache {
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${biblioteca.cache.tamano-maximo:10000}")
+    private long tamanoMaximo;
+
+    @Value("${biblioteca.cache.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    private AsyncCache<Long, Libro> libros;
+
+    @PostConstruct
+    void iniciar() {
+        libros = Caffeine.newBuilder()
+            .maximumSize(tamanoMaximo)
+            .expireAfterWrite(Duration.ofSeconds(ttlSegundos))
+            .recordStats()
+            .buildAsync();
+        // Aciertos, fallos y expulsiones también en /actuator/prometheus (cache_gets, cache_evictions...)
+        CaffeineCacheMetrics.monitor(meterRegistry, libros, "libros");
+    }
+
+    // Un libro inexistente no se cachea: la consulta devuelve null y Caffeine no guarda la entrada.
+    // El future es compartido por todas las peticiones que esperan ese id: suprimirCancelacion = true
+    // evita que un cliente que se desconecta lo cancele para los demás.
+    public Mono<Libro> buscarPorId(Long id) {
+        return Mono.fromFuture(() -> libros.get(id, (clave, executor) -> libroRepository.findById(clave).toFuture()), true)
+            .map(libro -> libro.toBuilder().build());
+    }
+
+    public void invalidar(Long id) {
+        if (id != null) {
+            libros.synchronous().invalidate(id);
+        }
+    }
+
+    public MetricasCache getMetricas() {
+        CacheStats estadisticas = libros.synchronous().stats();
+        return new MetricasCache(
+            estadisticas.hitCount(),
+            estadisticas.missCount(),
+            estadisticas.hitRate(),
+            estadisticas.evictionCount(),
+            libros.synchronous().estimatedSize());
+    }
+
+    public record MetricasCache(long aciertos, long fallos, double tasaAciertos, long expulsiones, long tamano) {
+    }
+}
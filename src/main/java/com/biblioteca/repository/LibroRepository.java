@@ -1,12 +1,56 @@
 package com.biblioteca.repository;
 
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
 import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.relational.core.sql.LockMode;
+import org.springframework.data.relational.repository.Lock;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.Collection;
 
 @Repository
 public interface LibroRepository extends R2dbcRepository<Libro, Long> {
-    Flux<Libro> findByTituloContainingIgnoreCase(String titulo);
-    Flux<Libro> findByAutorContainingIgnoreCase(String autor);
+    Flux<Libro> findByTipo(TipoLibro tipo);
+    Flux<Libro> findByFormato(FormatoLibro formato);
+    Flux<Libro> findByEstado(EstadoLibro estado);
+
+    // Variantes con cursor: WHERE ... AND id > ? ORDER BY id LIMIT ? (ver Pagina.pageable())
+    Flux<Libro> findByIdGreaterThan(Long id, Pageable pageable);
+    Flux<Libro> findByTipoAndIdGreaterThan(TipoLibro tipo, Long id, Pageable pageable);
+    Flux<Libro> findByFormatoAndIdGreaterThan(FormatoLibro formato, Long id, Pageable pageable);
+    Flux<Libro> findByEstadoAndIdGreaterThan(EstadoLibro estado, Long id, Pageable pageable);
+
+    // Título y autor se comparan con las claves normalizadas de schema.sql (patrón LIKE ya normalizado)
+    @Query("SELECT * FROM libros WHERE titulo_clave LIKE :patron ORDER BY id")
+    Flux<Libro> buscarPorClaveTitulo(String patron);
+
+    @Query("SELECT * FROM libros WHERE titulo_clave LIKE :patron AND id > :despuesDe ORDER BY id LIMIT :limite")
+    Flux<Libro> buscarPorClaveTituloDespuesDe(String patron, long despuesDe, int limite);
+
+    @Query("SELECT * FROM libros WHERE autor_clave LIKE :patron ORDER BY id")
+    Flux<Libro> buscarPorClaveAutor(String patron);
+
+    @Query("SELECT * FROM libros WHERE autor_clave LIKE :patron AND id > :despuesDe ORDER BY id LIMIT :limite")
+    Flux<Libro> buscarPorClaveAutorDespuesDe(String patron, long despuesDe, int limite);
+
+    // Transición de estado atómica: devuelve 1 si se aplicó y 0 si el libro no estaba en el estado esperado
+    @Modifying
+    @Query("UPDATE libros SET estado = :nuevo WHERE id = :id AND estado = :esperado")
+    Mono<Integer> actualizarEstadoSiCoincide(Long id, EstadoLibro esperado, EstadoLibro nuevo);
+
+    // Lotes de préstamo y devolución: SELECT ... FOR UPDATE que bloquea las filas hasta el fin de la transacción
+    @Lock(LockMode.PESSIMISTIC_WRITE)
+    Flux<Libro> findByIdIn(Collection<Long> ids);
+
+    // Un solo UPDATE para todo el lote; devuelve cuántas filas cambiaron de estado
+    @Modifying
+    @Query("UPDATE libros SET estado = :nuevo WHERE id IN (:ids) AND estado = :esperado")
+    Mono<Integer> actualizarEstadoLote(Collection<Long> ids, EstadoLibro esperado, EstadoLibro nuevo);
 }
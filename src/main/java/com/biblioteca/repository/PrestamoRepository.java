@@ -0,0 +1,12 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.Prestamo;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface PrestamoRepository extends R2dbcRepository<Prestamo, Long> {
+    Flux<Prestamo> findByLibroIdOrderByFechaDesc(Long libroId);
+    Flux<Prestamo> findByPrestatarioOrderByFechaDesc(String prestatario);
+}
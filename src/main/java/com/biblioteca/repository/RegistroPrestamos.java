@@ -0,0 +1,212 @@
+package com.biblioteca.repository;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.TipoMovimiento;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escritor del historial de préstamos con commit agrupado.
+ * Los eventos se encolan sin esperar a la base de datos y se insertan en lotes
+ * de hasta lote-maximo filas o cada intervalo-ms, lo que ocurra antes.
+ * Mientras un asiento está pendiente de escribir sigue siendo el último movimiento
+ * de su libro para prestatariosActuales.
+ * Un lote que falla se reintenta con espera exponencial; si se agotan los reintentos
+ * sus filas se anteponen al lote siguiente, así que no se pierden ni cambian de orden.
+ * Mientras haya filas atrasadas el indicador de salud está DOWN.
+ */
+@Component
+public class RegistroPrestamos implements HealthIndicator {
+    private static final Logger log = LoggerFactory.getLogger(RegistroPrestamos.class);
+
+    private static final String INSERT =
+        "INSERT INTO prestamos (libro_id, prestatario, tipo, fecha) VALUES ($1, $2, $3, $4)";
+    // Último asiento de cada libro: los lotes se insertan en orden, así que es el de mayor id
+    private static final String ULTIMOS =
+        "SELECT libro_id, prestatario, tipo FROM prestamos WHERE id IN "
+            + "(SELECT MAX(id) FROM prestamos WHERE libro_id IN (:ids) GROUP BY libro_id)";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${biblioteca.prestamos.lote-maximo:256}")
+    private int loteMaximo;
+
+    @Value("${biblioteca.prestamos.intervalo-ms:50}")
+    private long intervaloMs;
+
+    @Value("${biblioteca.prestamos.reintentos:5}")
+    private int reintentos;
+
+    @Value("${biblioteca.prestamos.espera-reintento-ms:100}")
+    private long esperaReintentoMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Sinks.Many<Prestamo> eventos = Sinks.many().unicast().onBackpressureBuffer();
+    private final Map<Long, Prestamo> pendientes = new ConcurrentHashMap<>();
+    private final CountDownLatch terminado = new CountDownLatch(1);
+    private Disposable escritor;
+    private Counter lotesFallidos;
+    // Solo lo modifica el hilo del escritor (concatMap procesa los lotes de uno en uno)
+    private volatile List<Prestamo> atrasados = List.of();
+    private volatile Throwable ultimoError;
+
+    @PostConstruct
+    void iniciar() {
+        lotesFallidos = Counter.builder("biblioteca.prestamos.lotes.fallidos")
+            .description("Lotes del historial que agotaron los reintentos")
+            .register(meterRegistry);
+        meterRegistry.gauge("biblioteca.prestamos.atrasados", this, registro -> registro.atrasados.size());
+        escritor = eventos.asFlux()
+            .bufferTimeout(loteMaximo, Duration.ofMillis(intervaloMs), true)
+            .concatMap(this::escribirConReintentos)
+            .doFinally(senal -> terminado.countDown())
+            .subscribe();
+    }
+
+    private Mono<Void> escribirConReintentos(List<Prestamo> lote) {
+        List<Prestamo> filas = conAtrasados(lote);
+        return escribirLote(filas)
+            .retryWhen(Retry.backoff(reintentos, Duration.ofMillis(esperaReintentoMs)))
+            .doOnSuccess(escrito -> {
+                atrasados = List.of();
+                ultimoError = null;
+                filas.forEach(prestamo -> pendientes.remove(prestamo.getLibroId(), prestamo));
+            })
+            .onErrorResume(error -> {
+                // Las filas siguen en pendientes: prestatariosActuales no pierde el último movimiento
+                atrasados = filas;
+                ultimoError = error;
+                lotesFallidos.increment();
+                log.error("No se pudo escribir el historial de préstamos tras {} reintentos; {} filas atrasadas",
+                    reintentos, filas.size(), error);
+                return Mono.empty();
+            });
+    }
+
+    // Las filas atrasadas van primero para que el orden de inserción siga siendo el de registro
+    private List<Prestamo> conAtrasados(List<Prestamo> lote) {
+        if (atrasados.isEmpty()) {
+            return lote;
+        }
+        List<Prestamo> filas = new ArrayList<>(atrasados);
+        filas.addAll(lote);
+        return filas;
+    }
+
+    @Override
+    public Health health() {
+        List<Prestamo> sinEscribir = atrasados;
+        if (sinEscribir.isEmpty()) {
+            return Health.up().withDetail("pendientes", pendientes.size()).build();
+        }
+        Throwable error = ultimoError;
+        return Health.down()
+            .withDetail("atrasados", sinEscribir.size())
+            .withDetail("error", error == null ? "" : String.valueOf(error.getMessage()))
+            .build();
+    }
+
+    // Varios hilos pueden registrar a la vez: busyLooping reintenta si el sink está ocupado
+    public void registrar(Prestamo prestamo) {
+        pendientes.put(prestamo.getLibroId(), prestamo);
+        eventos.emitNext(prestamo, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Quién tiene prestado cada libro según su último movimiento (préstamo sin devolución).
+     * Los libros sin préstamo abierto no aparecen en el mapa.
+     */
+    public Mono<Map<Long, String>> prestatariosActuales(Collection<Long> libroIds) {
+        Map<Long, String> prestatarios = new HashMap<>();
+        List<Long> enBaseDeDatos = new ArrayList<>();
+        for (Long libroId : libroIds) {
+            Prestamo pendiente = pendientes.get(libroId);
+            if (pendiente == null) {
+                enBaseDeDatos.add(libroId);
+            } else if (pendiente.getTipo() == TipoMovimiento.PRESTAMO) {
+                prestatarios.put(libroId, pendiente.getPrestatario());
+            }
+        }
+        if (enBaseDeDatos.isEmpty()) {
+            return Mono.just(prestatarios);
+        }
+        return databaseClient.sql(ULTIMOS)
+            .bind("ids", enBaseDeDatos)
+            .map((row, metadata) -> Prestamo.builder()
+                .libroId(row.get("libro_id", Long.class))
+                .prestatario(row.get("prestatario", String.class))
+                .tipo(TipoMovimiento.valueOf(row.get("tipo", String.class)))
+                .build())
+            .all()
+            .filter(ultimo -> ultimo.getTipo() == TipoMovimiento.PRESTAMO && ultimo.getPrestatario() != null)
+            .reduce(prestatarios, (acumulado, ultimo) -> {
+                acumulado.put(ultimo.getLibroId(), ultimo.getPrestatario());
+                return acumulado;
+            });
+    }
+
+    // Al apagar se vacía lo pendiente antes de cerrar la conexión
+    @PreDestroy
+    void detener() throws InterruptedException {
+        eventos.tryEmitComplete();
+        if (!terminado.await(5, TimeUnit.SECONDS)) {
+            escritor.dispose();
+        }
+        if (!atrasados.isEmpty()) {
+            log.error("Se cierra con {} filas del historial de préstamos sin escribir", atrasados.size());
+        }
+    }
+
+    private Mono<Void> escribirLote(List<Prestamo> lote) {
+        return databaseClient.inConnectionMany(connection -> {
+                Statement statement = connection.createStatement(INSERT);
+                for (int i = 0; i < lote.size(); i++) {
+                    if (i > 0) {
+                        statement.add();
+                    }
+                    vincular(statement, lote.get(i));
+                }
+                return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+            })
+            .then();
+    }
+
+    private static void vincular(Statement statement, Prestamo prestamo) {
+        statement.bind("$1", prestamo.getLibroId());
+        if (prestamo.getPrestatario() == null) {
+            statement.bindNull("$2", String.class);
+        } else {
+            statement.bind("$2", prestamo.getPrestatario());
+        }
+        statement.bind("$3", prestamo.getTipo().name())
+            .bind("$4", prestamo.getFecha());
+    }
+}
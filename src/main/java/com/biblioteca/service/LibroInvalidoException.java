@@ -0,0 +1,25 @@
+package com.biblioteca.service;
+
+import com.biblioteca.validator.ResultadoValidacion;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// Libro rechazado por la validación: responde 400 con todas las violaciones
+public class LibroInvalidoException extends ResponseStatusException {
+    private final transient ResultadoValidacion resultado;
+
+    public LibroInvalidoException(ResultadoValidacion resultado) {
+        super(HttpStatus.BAD_REQUEST, "Error de validación: " + resultado.getMensaje());
+        this.resultado = resultado;
+    }
+
+    public ResultadoValidacion getResultado() {
+        return resultado;
+    }
+
+    // Un rechazo es un resultado esperado: no hace falta construir la traza de pila
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -3,91 +3,142 @@ package com.biblioteca.service;
 import com.biblioteca.model.Libro;
 import com.biblioteca.model.TipoLibro;
 import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.EstadoLibro;
 import com.biblioteca.repository.LibroRepository;
 import com.biblioteca.factory.LibroFactory;
 import com.biblioteca.factory.AbstractLibroFactory;
-import com.biblioteca.factory.LibroFisicoFactory;
-import com.biblioteca.factory.LibroDigitalFactory;
 import com.biblioteca.builder.LibroBuilder;
+import com.biblioteca.strategy.ConsultaLibros;
+import com.biblioteca.strategy.RegistroEstrategias;
 import com.biblioteca.strategy.SearchStrategy;
-import com.biblioteca.strategy.SearchByTitle;
-import com.biblioteca.strategy.SearchByAuthor;
-import com.biblioteca.strategy.SearchByTipo;
-import com.biblioteca.validator.Validador;
-import com.biblioteca.validator.ValidadorTitulo;
-import com.biblioteca.validator.ValidadorAutor;
-import com.biblioteca.validator.ValidadorCamposObligatorios;
-import com.biblioteca.validator.ValidationException;
+import com.biblioteca.index.Bm25Index;
+import com.biblioteca.index.CatalogoIndexador;
+import com.biblioteca.index.IndiceAutocompletado;
+import com.biblioteca.index.IndiceRelevancia;
+import com.biblioteca.index.Normalizador;
+import com.biblioteca.importacion.FormatoImportacion;
+import com.biblioteca.importacion.LectorRegistros;
+import com.biblioteca.importacion.RegistroImportacion;
+import com.biblioteca.importacion.ResumenImportacion;
+import com.biblioteca.repository.LibroBatchRepository;
+import com.biblioteca.repository.LibroCache;
+import com.biblioteca.repository.RegistroPrestamos;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.ModoLote;
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.model.ResultadoLote;
+import com.biblioteca.model.Sugerencia;
+import com.biblioteca.model.TipoMovimiento;
+import com.biblioteca.metricas.MetricasBiblioteca;
+import com.biblioteca.validator.MotorValidacion;
+import com.biblioteca.validator.ResultadoValidacion;
 import com.biblioteca.decorator.PrestamoDecorator;
-import com.biblioteca.observer.PrestamoObserver;
+import com.biblioteca.observer.PrestamoEventBus;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class LibroService {
+    public static final String RELEVANCIA = "relevancia";
 
     @Autowired
     private LibroRepository libroRepository;
 
-    private final Validador validadorChain;
+    @Autowired
+    private CatalogoIndexador catalogoIndexador;
 
-    public LibroService() {
-        // Configurar Chain of Responsibility
-        ValidadorTitulo validadorTitulo = new ValidadorTitulo();
-        ValidadorAutor validadorAutor = new ValidadorAutor();
-        ValidadorCamposObligatorios validadorCampos = new ValidadorCamposObligatorios();
+    @Autowired
+    private LibroBatchRepository libroBatchRepository;
 
-        validadorTitulo.setSiguiente(validadorAutor);
-        validadorAutor.setSiguiente(validadorCampos);
+    @Autowired
+    private LectorRegistros lectorRegistros;
 
-        this.validadorChain = validadorTitulo;
-    }
+    @Autowired
+    private RegistroPrestamos registroPrestamos;
+
+    @Autowired
+    private PrestamoEventBus prestamoEventBus;
+
+    @Autowired
+    private LibroCache libroCache;
+
+    @Autowired
+    private MetricasBiblioteca metricas;
+
+    @Autowired
+    private RegistroEstrategias registroEstrategias;
+
+    @Autowired
+    private IndiceRelevancia indiceRelevancia;
+
+    @Autowired
+    private IndiceAutocompletado indiceAutocompletado;
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    @Value("${biblioteca.busqueda.sql:true}")
+    private boolean busquedaSql;
+
+    @Value("${biblioteca.importacion.tamano-lote:500}")
+    private int tamanoLote;
+
+    // Cadena de Responsabilidad: título -> autor -> campos obligatorios
+    private final MotorValidacion motorValidacion = MotorValidacion.porDefecto();
 
     // Agregar libro usando Factory Method y Builder
     public Mono<Libro> agregarLibro(String titulo, String autor, TipoLibro tipo, FormatoLibro formato) {
-        return Mono.fromCallable(() -> {
+        return metricas.medir("agregar.factory", Mono.fromCallable(() -> {
             // Usar Factory Method
             LibroFactory factory = LibroFactory.getFactory(tipo);
             Libro libro = factory.crearLibro(titulo, autor, formato);
 
             // Validar usando Chain of Responsibility
-            try {
-                validadorChain.validar(libro);
-            } catch (ValidationException e) {
-                throw new RuntimeException("Error de validación: " + e.getMessage());
-            }
+            validar(libro);
 
             return libro;
-        }).flatMap(libroRepository::save);
+        }).flatMap(libroRepository::save)
+            .doOnNext(this::alGuardar));
     }
 
     // Agregar libro usando Abstract Factory
     public Mono<Libro> agregarLibroConAbstractFactory(String titulo, String autor, TipoLibro tipo, FormatoLibro formato) {
-        return Mono.fromCallable(() -> {
-            AbstractLibroFactory abstractFactory = formato == FormatoLibro.FISICO
-                ? new LibroFisicoFactory()
-                : new LibroDigitalFactory();
+        return metricas.medir("agregar.abstract-factory", Mono.fromCallable(() -> {
+            AbstractLibroFactory abstractFactory = AbstractLibroFactory.getFactory(formato);
 
             Libro libro = tipo == TipoLibro.FICCION
                 ? abstractFactory.crearLibroFiccion(titulo, autor)
                 : abstractFactory.crearLibroNoFiccion(titulo, autor);
 
             // Validar usando Chain of Responsibility
-            try {
-                validadorChain.validar(libro);
-            } catch (ValidationException e) {
-                throw new RuntimeException("Error de validación: " + e.getMessage());
-            }
+            validar(libro);
 
             return libro;
-        }).flatMap(libroRepository::save);
+        }).flatMap(libroRepository::save)
+            .doOnNext(this::alGuardar));
     }
 
     // Agregar libro usando Builder
     public Mono<Libro> agregarLibroConBuilder(String titulo, String autor, TipoLibro tipo, FormatoLibro formato) {
-        return Mono.fromCallable(() -> {
+        return metricas.medir("agregar.builder", Mono.fromCallable(() -> {
             Libro libro = new LibroBuilder()
                 .withTitulo(titulo)
                 .withAutor(autor)
@@ -96,75 +147,282 @@ public class LibroService {
                 .build();
 
             // Validar usando Chain of Responsibility
-            try {
-                validadorChain.validar(libro);
-            } catch (ValidationException e) {
-                throw new RuntimeException("Error de validación: " + e.getMessage());
-            }
+            validar(libro);
 
             return libro;
-        }).flatMap(libroRepository::save);
+        }).flatMap(libroRepository::save)
+            .doOnNext(this::alGuardar));
+    }
+
+    // Importación masiva en streaming: cada fila pasa por Factory Method y Chain of Responsibility
+    // y los libros válidos se insertan por lotes. concatMap con prefetch 1 mantiene en memoria
+    // como mucho un par de lotes y propaga la contrapresión hasta el cuerpo de la petición.
+    public Mono<ResumenImportacion> importarLibros(Flux<String> lineas, FormatoImportacion formato) {
+        ResumenImportacion resumen = new ResumenImportacion();
+        return metricas.medir("importar", lineas
+            .index()
+            .filter(linea -> !linea.getT2().isBlank()
+                && !(linea.getT1() == 0 && lectorRegistros.esCabecera(linea.getT2(), formato)))
+            .<Libro>handle((linea, sink) -> {
+                Libro libro;
+                try {
+                    libro = crearLibroImportado(lectorRegistros.leer(linea.getT2(), formato));
+                } catch (IllegalArgumentException e) {
+                    resumen.rechazar(linea.getT1() + 1, e.getMessage());
+                    return;
+                }
+                ResultadoValidacion resultado = motorValidacion.evaluar(libro);
+                if (resultado.isValido()) {
+                    sink.next(libro);
+                } else {
+                    metricas.registrarViolaciones(resultado);
+                    resumen.rechazar(linea.getT1() + 1, resultado.getMensaje());
+                }
+            })
+            .buffer(tamanoLote)
+            .concatMap(lote -> libroBatchRepository.insertarLote(lote)
+                .doOnNext(catalogoIndexador::indexar)
+                .count(), 1)
+            .doOnNext(resumen::sumarAceptados)
+            .then(Mono.fromSupplier(() -> resumen)));
+    }
+
+    // La cadena informa de todas las violaciones a la vez; el rechazo es un 400 sin traza de pila
+    private void validar(Libro libro) {
+        ResultadoValidacion resultado = motorValidacion.evaluar(libro);
+        if (!resultado.isValido()) {
+            metricas.registrarViolaciones(resultado);
+            throw new LibroInvalidoException(resultado);
+        }
+    }
+
+    // Sin tipo no hay Factory Method aplicable: el Builder deja que la cadena informe del campo faltante
+    private Libro crearLibroImportado(RegistroImportacion registro) {
+        if (registro.tipo() == null) {
+            return new LibroBuilder()
+                .withTitulo(registro.titulo())
+                .withAutor(registro.autor())
+                .withFormato(registro.formato())
+                .build();
+        }
+        return LibroFactory.getFactory(registro.tipo())
+            .crearLibro(registro.titulo(), registro.autor(), registro.formato());
     }
 
     // Buscar libros usando Strategy Pattern
-    public Flux<Libro> buscarLibros(String criterio, String tipoBusqueda) {
-        SearchStrategy strategy = switch (tipoBusqueda.toLowerCase()) {
-            case "titulo" -> new SearchByTitle();
-            case "autor" -> new SearchByAuthor();
-            case "tipo" -> new SearchByTipo();
-            default -> new SearchByTitle();
-        };
+    public Flux<Libro> buscarLibros(String criterio, String tipoBusqueda, Pagina pagina) {
+        String clave = registroEstrategias.clave(tipoBusqueda);
+        SearchStrategy strategy = registroEstrategias.obtener(clave);
 
-        return strategy.buscar(libroRepository.findAll(), criterio);
+        // Recorrido perezoso desde el cursor en orden de id: solo lo consumen las estrategias que
+        // filtran en memoria, y take() lo cancela en cuanto la página está completa
+        return metricas.medirBusqueda(clave, desdeCursor(pagina),
+            fuente -> strategy.buscarPagina(fuente, criterio, pagina));
     }
 
-    // Listar todos los libros
-    public Flux<Libro> listarTodos() {
-        return libroRepository.findAll();
+    // Ranking BM25 sobre título, autor y descripción: las posiciones [desplazamiento, desplazamiento + k)
+    public Flux<Libro> buscarPorRelevancia(String criterio, int k, int desplazamiento) {
+        return metricas.medirBusqueda(RELEVANCIA, libroRepository.findAll(), fuente -> Flux.defer(() -> {
+            if (!indiceRelevancia.isListo()) {
+                // Carga inicial en curso: se puntúa el catálogo completo con un índice temporal
+                return fuente.collectList().flatMapMany(libros -> {
+                    Bm25Index temporal = new Bm25Index();
+                    libros.forEach(libro -> temporal.indexar(libro.getId(), IndiceRelevancia.terminos(libro)));
+                    Map<Long, Libro> porId = libros.stream().collect(Collectors.toMap(Libro::getId, Function.identity()));
+                    return Flux.fromIterable(temporal.buscar(Normalizador.terminos(criterio), k, desplazamiento))
+                        .map(resultado -> porId.get(resultado.id()));
+                });
+            }
+            List<Long> ids = indiceRelevancia.buscar(criterio, k, desplazamiento).stream()
+                .map(Bm25Index.Resultado::id)
+                .toList();
+            if (ids.isEmpty()) {
+                return Flux.empty();
+            }
+            // findAllById no respeta el orden: se reordena según el ranking (como mucho k libros)
+            return libroRepository.findAllById(ids)
+                .collectMap(Libro::getId)
+                .flatMapIterable(porId -> ids.stream().map(porId::get).filter(Objects::nonNull).toList());
+        }));
+    }
+
+    // Títulos y autores que empiezan (en cualquiera de sus palabras) por el prefijo, los más populares primero
+    public Flux<Sugerencia> autocompletar(String prefijo, int limite) {
+        return metricas.medir("autocompletar", Mono.fromSupplier(() -> indiceAutocompletado.completar(prefijo, limite)))
+            .flatMapIterable(sugerencias -> sugerencias);
+    }
+
+    // Varios criterios a la vez: un WHERE con todos ellos o, sin SQL, un único predicado compilado
+    public Flux<Libro> consultarLibros(ConsultaLibros consulta, Pagina pagina) {
+        return metricas.medirBusqueda("consulta", desdeCursor(pagina), fuente -> busquedaSql
+            ? r2dbcEntityTemplate.select(Libro.class).matching(consulta.consultaSql(pagina)).all()
+            : fuente.filter(consulta.compilar()).take(pagina.limite()));
+    }
+
+    private Flux<Libro> desdeCursor(Pagina pagina) {
+        return libroRepository.findByIdGreaterThan(pagina.despuesDe(), Pagina.desde(pagina.despuesDe()).pageable());
+    }
+
+    // Detalle de un libro: servido desde la caché de findById
+    public Mono<Libro> obtenerLibro(Long id) {
+        return metricas.medir("obtener", libroCache.buscarPorId(id));
+    }
+
+    // Listar libros por cursor: WHERE id > ? ORDER BY id LIMIT ?
+    public Flux<Libro> listarTodos(Pagina pagina) {
+        return libroRepository.findByIdGreaterThan(pagina.despuesDe(), pagina.pageable());
     }
 
     // Prestar libro usando Decorator y Observer
     public Mono<String> prestarLibro(Long libroId, String prestatario) {
-        return libroRepository.findById(libroId)
+        return metricas.medir("prestar", libroCache.buscarPorId(libroId)
             .switchIfEmpty(Mono.error(new RuntimeException("Libro no encontrado")))
+            .flatMap(libro -> transicionar(libro, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO,
+                "El libro no esta disponible para prestamo"))
             .map(libro -> {
                 // Usar Decorator para añadir funcionalidad de préstamo
                 PrestamoDecorator decorator = new PrestamoDecorator(libro);
 
-                // Añadir Observer para notificaciones
-                decorator.addObserver(new PrestamoObserver("Sistema de Biblioteca"));
-                decorator.addObserver(new PrestamoObserver("Registro de Préstamos"));
+                // Añadir Observer para notificaciones (el bus reparte a los observadores en segundo plano)
+                decorator.addObserver(prestamoEventBus);
 
-                try {
-                    decorator.prestar(prestatario);
-                    return "Libro prestado exitosamente a " + prestatario;
-                } catch (IllegalStateException e) {
-                    throw new RuntimeException(e.getMessage());
-                }
-            })
-            .flatMap(result -> libroRepository.findById(libroId)
-                .flatMap(libroRepository::save)
-                .thenReturn(result));
+                decorator.prestar(prestatario);
+                catalogoIndexador.indexar(libro);
+                registrarMovimiento(libro, prestatario, TipoMovimiento.PRESTAMO);
+                return "Libro prestado exitosamente a " + prestatario;
+            }));
     }
 
-    // Devolver libro
+    // Devolver libro: el prestatario se consulta antes del UPDATE, mientras nadie más puede prestarlo
     public Mono<String> devolverLibro(Long libroId) {
-        return libroRepository.findById(libroId)
+        return metricas.medir("devolver", libroCache.buscarPorId(libroId)
             .switchIfEmpty(Mono.error(new RuntimeException("Libro no encontrado")))
-            .map(libro -> {
+            .zipWith(registroPrestamos.prestatariosActuales(List.of(libroId)))
+            .flatMap(libroYPrestatarios -> transicionar(libroYPrestatarios.getT1(), EstadoLibro.PRESTADO,
+                    EstadoLibro.DISPONIBLE, "El libro no esta prestado")
+                .map(libro -> {
+                    aplicarDevolucion(libro, libroYPrestatarios.getT2().get(libroId));
+                    return "Libro devuelto exitosamente";
+                })));
+    }
+
+    // Préstamo por lotes: una transacción para todos los libros y una notificación por libro prestado
+    public Mono<ResultadoLote> prestarLote(List<Long> ids, String prestatario, ModoLote modo) {
+        return metricas.medir("prestar-lote", transicionarLote(ids, modo, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO,
+            "El libro no esta disponible para prestamo", "Libro prestado exitosamente a " + prestatario,
+            libro -> {
                 PrestamoDecorator decorator = new PrestamoDecorator(libro);
-                decorator.addObserver(new PrestamoObserver("Sistema de Biblioteca"));
+                decorator.addObserver(prestamoEventBus);
+                decorator.prestar(prestatario);
+                catalogoIndexador.indexar(libro);
+                registrarMovimiento(libro, prestatario, TipoMovimiento.PRESTAMO);
+            }));
+    }
 
-                try {
-                    decorator.devolver();
-                    return "Libro devuelto exitosamente";
-                } catch (IllegalStateException e) {
-                    throw new RuntimeException(e.getMessage());
+    // Devolución por lotes, con las mismas garantías que el préstamo
+    public Mono<ResultadoLote> devolverLote(List<Long> ids, ModoLote modo) {
+        return metricas.medir("devolver-lote", registroPrestamos.prestatariosActuales(new HashSet<>(ids))
+            .flatMap(prestatarios -> transicionarLote(ids, modo, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE,
+                "El libro no esta prestado", "Libro devuelto exitosamente",
+                libro -> aplicarDevolucion(libro, prestatarios.get(libro.getId())))));
+    }
+
+    // Notifica la devolución y la registra en el historial a nombre de quien tenía el préstamo
+    private void aplicarDevolucion(Libro libro, String prestatario) {
+        PrestamoDecorator decorator = new PrestamoDecorator(libro, prestatario);
+        decorator.addObserver(prestamoEventBus);
+        decorator.devolver();
+        catalogoIndexador.indexar(libro);
+        registrarMovimiento(libro, prestatario, TipoMovimiento.DEVOLUCION);
+    }
+
+    private void alGuardar(Libro libro) {
+        libroCache.invalidar(libro.getId());
+        catalogoIndexador.indexar(libro);
+    }
+
+    // El historial se escribe en segundo plano por lotes; no añade latencia a la petición
+    private void registrarMovimiento(Libro libro, String prestatario, TipoMovimiento tipo) {
+        registroPrestamos.registrar(Prestamo.builder()
+            .libroId(libro.getId())
+            .prestatario(prestatario)
+            .tipo(tipo)
+            .fecha(LocalDateTime.now())
+            .build());
+    }
+
+    /**
+     * Cambio de estado de un lote en una sola transacción: SELECT ... FOR UPDATE de todos los libros,
+     * validación de cada uno y un único UPDATE con los que se pueden aplicar. Con TODO_O_NADA un solo
+     * rechazo deja el lote sin cambios. Las notificaciones, el índice y el historial se actualizan
+     * después del commit, libro a libro, igual que en las operaciones individuales.
+     */
+    private Mono<ResultadoLote> transicionarLote(List<Long> ids, ModoLote modo, EstadoLibro esperado,
+                                                 EstadoLibro nuevo, String error, String exito,
+                                                 Consumer<Libro> alAplicar) {
+        Set<Long> distintos = new HashSet<>(ids);
+        return libroRepository.findByIdIn(distintos)
+            .collectMap(Libro::getId)
+            .flatMap(bloqueados -> {
+                List<ResultadoLote.Elemento> elementos = new ArrayList<>(ids.size());
+                List<Libro> aplicables = new ArrayList<>();
+                Set<Long> vistos = new HashSet<>();
+                for (Long id : ids) {
+                    Libro libro = bloqueados.get(id);
+                    String rechazo = !vistos.add(id) ? "Libro repetido en el lote"
+                        : libro == null ? "Libro no encontrado"
+                        : libro.getEstado() != esperado ? error
+                        : null;
+                    if (rechazo == null) {
+                        aplicables.add(libro);
+                    }
+                    elementos.add(new ResultadoLote.Elemento(id, rechazo == null, rechazo == null ? exito : rechazo));
                 }
+
+                boolean rechazarLote = modo == ModoLote.TODO_O_NADA && aplicables.size() < ids.size();
+                if (rechazarLote || aplicables.isEmpty()) {
+                    List<ResultadoLote.Elemento> sinCambios = elementos.stream()
+                        .map(elemento -> elemento.exito()
+                            ? new ResultadoLote.Elemento(elemento.id(), false, "No aplicado: el lote tiene libros rechazados")
+                            : elemento)
+                        .toList();
+                    return Mono.just(new LoteValidado(ResultadoLote.de(modo, sinCambios), List.<Libro>of()));
+                }
+                // Con las filas bloqueadas ninguna otra transacción puede cambiarlas: si no coinciden, se revierte
+                List<Long> idsAplicables = aplicables.stream().map(Libro::getId).toList();
+                return libroRepository.actualizarEstadoLote(idsAplicables, esperado, nuevo)
+                    .flatMap(filas -> filas == aplicables.size()
+                        ? Mono.just(new LoteValidado(ResultadoLote.de(modo, elementos), aplicables))
+                        : Mono.<LoteValidado>error(new RuntimeException(
+                            "Conflicto al actualizar el lote: " + filas + " de " + aplicables.size() + " libros")));
             })
-            .flatMap(result -> libroRepository.findById(libroId)
-                .flatMap(libroRepository::save)
-                .thenReturn(result));
+            .as(transactionalOperator::transactional)
+            // Con o sin commit, las copias cacheadas del lote dejan de ser fiables
+            .doOnSuccess(lote -> distintos.forEach(libroCache::invalidar))
+            .doOnError(e -> distintos.forEach(libroCache::invalidar))
+            .map(lote -> {
+                lote.aplicables().forEach(alAplicar);
+                return lote.resultado();
+            });
     }
-}
 
+    private record LoteValidado(ResultadoLote resultado, List<Libro> aplicables) {
+    }
+
+    // El cambio de estado se persiste con un único UPDATE condicional (WHERE estado = esperado).
+    // Si otra petición cambió el libro entre la lectura y el UPDATE, afecta 0 filas y se rechaza,
+    // por lo que dos préstamos simultáneos del mismo libro no pueden tener éxito a la vez.
+    private Mono<Libro> transicionar(Libro libro, EstadoLibro esperado, EstadoLibro nuevo, String error) {
+        if (libro.getEstado() != esperado) {
+            // Puede ser una copia cacheada desactualizada: la siguiente lectura irá a la base de datos
+            libroCache.invalidar(libro.getId());
+            return Mono.error(new RuntimeException(error));
+        }
+        // Con o sin éxito, la entrada cacheada deja de ser fiable: se invalida tras el UPDATE
+        return libroRepository.actualizarEstadoSiCoincide(libro.getId(), esperado, nuevo)
+            .doOnNext(filas -> libroCache.invalidar(libro.getId()))
+            .flatMap(filas -> filas == 1
+                ? Mono.just(libro)
+                : Mono.<Libro>error(new RuntimeException(error)));
+    }
+}
@@ -0,0 +1,23 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.Prestamo;
+import com.biblioteca.repository.PrestamoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+// Consultas de informes sobre el historial; nunca leen la tabla libros
+@Service
+public class PrestamoService {
+
+    @Autowired
+    private PrestamoRepository prestamoRepository;
+
+    public Flux<Prestamo> historialPorLibro(Long libroId) {
+        return prestamoRepository.findByLibroIdOrderByFechaDesc(libroId);
+    }
+
+    public Flux<Prestamo> historialPorPrestatario(String prestatario) {
+        return prestamoRepository.findByPrestatarioOrderByFechaDesc(prestatario);
+    }
+}
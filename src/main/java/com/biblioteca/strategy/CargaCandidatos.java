@@ -0,0 +1,32 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import reactor.core.publisher.Flux;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+// Carga paginada de los IDs que devuelve un índice: se ordenan, se aplica el cursor
+// y se cargan por tramos para que el streaming no lea todos los candidatos de golpe
+final class CargaCandidatos {
+    private static final int TRAMO = 256;
+
+    private CargaCandidatos() {
+    }
+
+    static Flux<Libro> cargar(Set<Long> candidatos, Pagina pagina, Function<Set<Long>, Flux<Libro>> cargador) {
+        List<Long> ids = candidatos.stream()
+            .filter(pagina::incluye)
+            .sorted()
+            .limit(pagina.limite())
+            .toList();
+        // findAllById no garantiza el orden: se reordena cada tramo (como mucho TRAMO libros)
+        return Flux.fromIterable(ids)
+            .buffer(TRAMO)
+            .concatMap(tramo -> cargador.apply(new LinkedHashSet<>(tramo))
+                .sort(Comparator.comparing(Libro::getId)));
+    }
+}
@@ -0,0 +1,119 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.Normalizador;
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.TipoLibro;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Búsqueda con varios criterios combinados con AND (titulo, autor, tipo, formato, estado).
+ * Los criterios vacíos no filtran. La consulta se compila una vez por petición:
+ * en un único predicado para filtrar en memoria, o en un WHERE para la base de datos.
+ */
+public record ConsultaLibros(String titulo, String autor, TipoLibro tipo, FormatoLibro formato,
+                             EstadoLibro estado) {
+
+    // Lanza IllegalArgumentException si un enumerado no es válido
+    public static ConsultaLibros de(String titulo, String autor, String tipo, String formato, String estado) {
+        return new ConsultaLibros(texto(titulo), texto(autor),
+            enumerado(TipoLibro.class, tipo, "tipo"),
+            enumerado(FormatoLibro.class, formato, "formato"),
+            enumerado(EstadoLibro.class, estado, "estado"));
+    }
+
+    public boolean vacia() {
+        return titulo == null && autor == null && tipo == null && formato == null && estado == null;
+    }
+
+    /**
+     * Un solo predicado que recorre cada libro una vez. Primero van las igualdades de enumerados,
+     * que son una comparación de referencias. Después van las subcadenas, de la más larga a la más
+     * corta: un patrón más largo descarta antes y con más probabilidad.
+     */
+    public Predicate<Libro> compilar() {
+        List<Predicate<Libro>> condiciones = new ArrayList<>(5);
+        if (estado != null) {
+            condiciones.add(libro -> libro.getEstado() == estado);
+        }
+        if (tipo != null) {
+            condiciones.add(libro -> libro.getTipo() == tipo);
+        }
+        if (formato != null) {
+            condiciones.add(libro -> libro.getFormato() == formato);
+        }
+        String claveTitulo = Normalizador.normalizar(titulo);
+        String claveAutor = Normalizador.normalizar(autor);
+        Predicate<Libro> porTitulo = libro -> TextoBusqueda.contieneClave(libro.getTitulo(), claveTitulo);
+        Predicate<Libro> porAutor = libro -> TextoBusqueda.contieneClave(libro.getAutor(), claveAutor);
+        if (titulo != null && autor != null) {
+            boolean tituloPrimero = titulo.length() >= autor.length();
+            condiciones.add(tituloPrimero ? porTitulo : porAutor);
+            condiciones.add(tituloPrimero ? porAutor : porTitulo);
+        } else if (titulo != null) {
+            condiciones.add(porTitulo);
+        } else if (autor != null) {
+            condiciones.add(porAutor);
+        }
+
+        return switch (condiciones.size()) {
+            case 0 -> libro -> true;
+            case 1 -> condiciones.get(0);
+            default -> {
+                List<Predicate<Libro>> todas = List.copyOf(condiciones);
+                yield libro -> {
+                    for (Predicate<Libro> condicion : todas) {
+                        if (!condicion.test(libro)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+        };
+    }
+
+    // WHERE id > ? AND ... ORDER BY id LIMIT ?, con las subcadenas como LIKE sin distinguir mayúsculas
+    public Query consultaSql(Pagina pagina) {
+        Criteria criterios = Criteria.where("id").greaterThan(pagina.despuesDe());
+        if (estado != null) {
+            criterios = criterios.and("estado").is(estado.name());
+        }
+        if (tipo != null) {
+            criterios = criterios.and("tipo").is(tipo.name());
+        }
+        if (formato != null) {
+            criterios = criterios.and("formato").is(formato.name());
+        }
+        if (titulo != null) {
+            criterios = criterios.and("titulo_clave").like(TextoBusqueda.patronLike(titulo));
+        }
+        if (autor != null) {
+            criterios = criterios.and("autor_clave").like(TextoBusqueda.patronLike(autor));
+        }
+        return Query.query(criterios).sort(Sort.by("id")).limit(pagina.limite());
+    }
+
+    private static String texto(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.trim();
+    }
+
+    private static <E extends Enum<E>> E enumerado(Class<E> tipo, String valor, String campo) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(tipo, valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor no válido para " + campo + ": " + valor);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.IndiceDifuso;
+import com.biblioteca.index.IndiceTrigramas;
+import com.biblioteca.repository.LibroRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estrategias de búsqueda por tipoBusqueda. Las estrategias no guardan estado entre peticiones,
+ * así que se crean una sola vez y se comparten. Una estrategia nueva se añade con registrar().
+ * Título y autor usan el índice de trigramas y "difusa" el índice tolerante a erratas.
+ * El resto se resuelve con un WHERE en la base de datos.
+ * Con biblioteca.busqueda.sql=false se vuelve a las estrategias que filtran en memoria.
+ */
+@Component
+public class RegistroEstrategias {
+    public static final String POR_DEFECTO = "titulo";
+
+    private final Map<String, SearchStrategy> estrategias = new ConcurrentHashMap<>();
+
+    public RegistroEstrategias(LibroRepository libroRepository, IndiceTrigramas indiceTrigramas, IndiceDifuso indiceDifuso,
+                               @Value("${biblioteca.busqueda.sql:true}") boolean busquedaSql) {
+        registrar("titulo", new SearchByTitleIndexed(indiceTrigramas, libroRepository::findAllById,
+            busquedaSql ? new SqlSearchByTitle(libroRepository) : new SearchByTitle()));
+        registrar("autor", new SearchByAuthorIndexed(indiceTrigramas, libroRepository::findAllById,
+            busquedaSql ? new SqlSearchByAuthor(libroRepository) : new SearchByAuthor()));
+        registrar("tipo", busquedaSql ? new SqlSearchByTipo(libroRepository) : new SearchByTipo());
+        registrar("formato", busquedaSql ? new SqlSearchByFormato(libroRepository) : new SearchByFormato());
+        registrar("estado", busquedaSql ? new SqlSearchByEstado(libroRepository) : new SearchByEstado());
+        registrar("difusa", new SearchFuzzy(indiceDifuso, libroRepository::findAllById));
+    }
+
+    // final: el constructor la usa y una subclase no debe poder alterarla antes de estar construida
+    public final void registrar(String clave, SearchStrategy estrategia) {
+        estrategias.put(clave.toLowerCase(Locale.ROOT), estrategia);
+    }
+
+    // Los tipos desconocidos buscan por título. La clave normalizada también etiqueta las métricas.
+    public String clave(String tipoBusqueda) {
+        String clave = tipoBusqueda.toLowerCase(Locale.ROOT);
+        return estrategias.containsKey(clave) ? clave : POR_DEFECTO;
+    }
+
+    public SearchStrategy obtener(String clave) {
+        return estrategias.getOrDefault(clave, estrategias.get(POR_DEFECTO));
+    }
+
+    public Set<String> claves() {
+        return Set.copyOf(estrategias.keySet());
+    }
+}
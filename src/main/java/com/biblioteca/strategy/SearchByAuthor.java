@@ -1,13 +1,13 @@
 package com.biblioteca.strategy;
 
+import com.biblioteca.index.Normalizador;
 import com.biblioteca.model.Libro;
 import reactor.core.publisher.Flux;
 
 public class SearchByAuthor implements SearchStrategy {
     @Override
     public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
-        return libros.filter(libro ->
-            libro.getAutor().toLowerCase().contains(criterio.toLowerCase())
-        );
+        String clave = Normalizador.normalizar(criterio);
+        return libros.filter(libro -> TextoBusqueda.contieneClave(libro.getAutor(), clave));
     }
-}
\ No newline at end of file
+}
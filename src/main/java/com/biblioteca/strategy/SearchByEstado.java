@@ -0,0 +1,18 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.Libro;
+import reactor.core.publisher.Flux;
+
+// Filtro por igualdad de estado en memoria: mismo resultado que SqlSearchByEstado
+public class SearchByEstado implements SearchStrategy {
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        try {
+            EstadoLibro estado = EstadoLibro.valueOf(criterio.trim().toUpperCase());
+            return libros.filter(libro -> libro.getEstado() == estado);
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+}
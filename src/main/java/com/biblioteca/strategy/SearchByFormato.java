@@ -0,0 +1,18 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import reactor.core.publisher.Flux;
+
+// Filtro por igualdad de formato en memoria: mismo resultado que SqlSearchByFormato
+public class SearchByFormato implements SearchStrategy {
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        try {
+            FormatoLibro formato = FormatoLibro.valueOf(criterio.trim().toUpperCase());
+            return libros.filter(libro -> libro.getFormato() == formato);
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
 import reactor.core.publisher.Flux;
+import java.util.EnumSet;
 
 public class SearchByTipo implements SearchStrategy {
     @Override
     public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
-        return libros.filter(libro ->
-            libro.getTipo().toString().toLowerCase().contains(criterio.toLowerCase())
-        );
+        // Los tipos que encajan con el criterio se calculan una vez; por fila basta un EnumSet.contains
+        EnumSet<TipoLibro> tipos = EnumSet.noneOf(TipoLibro.class);
+        for (TipoLibro tipo : TipoLibro.values()) {
+            if (TextoBusqueda.contiene(tipo.name(), criterio)) {
+                tipos.add(tipo);
+            }
+        }
+        return tipos.isEmpty() ? Flux.empty() : libros.filter(libro -> tipos.contains(libro.getTipo()));
     }
-}
\ No newline at end of file
+}
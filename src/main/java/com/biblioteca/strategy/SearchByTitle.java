@@ -1,13 +1,13 @@
 package com.biblioteca.strategy;
 
+import com.biblioteca.index.Normalizador;
 import com.biblioteca.model.Libro;
 import reactor.core.publisher.Flux;
 
 public class SearchByTitle implements SearchStrategy {
     @Override
     public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
-        return libros.filter(libro ->
-            libro.getTitulo().toLowerCase().contains(criterio.toLowerCase())
-        );
+        String clave = Normalizador.normalizar(criterio);
+        return libros.filter(libro -> TextoBusqueda.contieneClave(libro.getTitulo(), clave));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.IndiceTrigramas;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import reactor.core.publisher.Flux;
+import java.util.Set;
+import java.util.function.Function;
+
+// Búsqueda por título sobre el índice de trigramas: solo se cargan los IDs candidatos
+public class SearchByTitleIndexed implements SearchStrategy {
+    private final IndiceTrigramas indice;
+    private final Function<Set<Long>, Flux<Libro>> cargador;
+    private final SearchStrategy respaldo;
+
+    public SearchByTitleIndexed(IndiceTrigramas indice, Function<Set<Long>, Flux<Libro>> cargador,
+                                SearchStrategy respaldo) {
+        this.indice = indice;
+        this.cargador = cargador;
+        this.respaldo = respaldo;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        if (!indice.isListo()) {
+            return respaldo.buscar(libros, criterio);
+        }
+        return Flux.defer(() -> {
+            Set<Long> candidatos = indice.buscarPorTitulo(criterio);
+            return candidatos.isEmpty() ? Flux.empty() : cargador.apply(candidatos);
+        });
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        if (!indice.isListo()) {
+            return respaldo.buscarPagina(libros, criterio, pagina);
+        }
+        return Flux.defer(() -> CargaCandidatos.cargar(indice.buscarPorTitulo(criterio), pagina, cargador));
+    }
+}
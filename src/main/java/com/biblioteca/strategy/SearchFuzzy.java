@@ -0,0 +1,38 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.IndiceDifuso;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import reactor.core.publisher.Flux;
+import java.util.Set;
+import java.util.function.Function;
+
+// Búsqueda tolerante a tildes y erratas en título y autor sobre el índice difuso
+public class SearchFuzzy implements SearchStrategy {
+    private final IndiceDifuso indice;
+    private final Function<Set<Long>, Flux<Libro>> cargador;
+
+    public SearchFuzzy(IndiceDifuso indice, Function<Set<Long>, Flux<Libro>> cargador) {
+        this.indice = indice;
+        this.cargador = cargador;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        if (!indice.isListo()) {
+            return libros.filter(libro -> indice.coincide(libro, criterio));
+        }
+        return Flux.defer(() -> {
+            Set<Long> candidatos = indice.buscar(criterio);
+            return candidatos.isEmpty() ? Flux.empty() : cargador.apply(candidatos);
+        });
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        if (!indice.isListo()) {
+            return buscar(libros, criterio).take(pagina.limite());
+        }
+        return Flux.defer(() -> CargaCandidatos.cargar(indice.buscar(criterio), pagina, cargador));
+    }
+}
@@ -1,11 +1,16 @@
 package com.biblioteca.strategy;
 
 import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
 import reactor.core.publisher.Flux;
 
 // Patrón Strategy - Interfaz para diferentes estrategias de búsqueda
 public interface SearchStrategy {
     Flux<Libro> buscar(Flux<Libro> libros, String criterio);
-}
-
 
+    // Búsqueda paginada por cursor. "libros" ya llega ordenado por id y posicionado tras el cursor,
+    // así que a las estrategias que filtran en memoria les basta con cortar; las de SQL la sobrescriben.
+    default Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        return buscar(libros, criterio).take(pagina.limite());
+    }
+}
@@ -0,0 +1,26 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.repository.LibroRepository;
+import reactor.core.publisher.Flux;
+
+// Búsqueda por autor resuelta en la base de datos (WHERE autor_clave LIKE ..., sin tildes ni mayúsculas)
+public class SqlSearchByAuthor implements SearchStrategy {
+    private final LibroRepository libroRepository;
+
+    public SqlSearchByAuthor(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        return libroRepository.buscarPorClaveAutor(TextoBusqueda.patronLike(criterio));
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        return libroRepository.buscarPorClaveAutorDespuesDe(
+            TextoBusqueda.patronLike(criterio), pagina.despuesDe(), pagina.limite());
+    }
+}
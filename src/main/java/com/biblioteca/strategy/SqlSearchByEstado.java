@@ -0,0 +1,35 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.repository.LibroRepository;
+import reactor.core.publisher.Flux;
+
+// Filtro por igualdad de estado resuelto en la base de datos (WHERE estado = ?)
+public class SqlSearchByEstado implements SearchStrategy {
+    private final LibroRepository libroRepository;
+
+    public SqlSearchByEstado(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        try {
+            return libroRepository.findByEstado(EstadoLibro.valueOf(criterio.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        try {
+            return libroRepository.findByEstadoAndIdGreaterThan(
+                EstadoLibro.valueOf(criterio.trim().toUpperCase()), pagina.despuesDe(), pagina.pageable());
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.repository.LibroRepository;
+import reactor.core.publisher.Flux;
+
+// Filtro por igualdad de formato resuelto en la base de datos (WHERE formato = ?)
+public class SqlSearchByFormato implements SearchStrategy {
+    private final LibroRepository libroRepository;
+
+    public SqlSearchByFormato(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        try {
+            return libroRepository.findByFormato(FormatoLibro.valueOf(criterio.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        try {
+            return libroRepository.findByFormatoAndIdGreaterThan(
+                FormatoLibro.valueOf(criterio.trim().toUpperCase()), pagina.despuesDe(), pagina.pageable());
+        } catch (IllegalArgumentException e) {
+            return Flux.empty();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.model.TipoLibro;
+import com.biblioteca.repository.LibroRepository;
+import reactor.core.publisher.Flux;
+
+// Filtro por igualdad de tipo resuelto en la base de datos (WHERE tipo = ?)
+public class SqlSearchByTipo implements SearchStrategy {
+    private final LibroRepository libroRepository;
+    private final SearchStrategy enMemoria = new SearchByTipo();
+
+    public SqlSearchByTipo(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        try {
+            return libroRepository.findByTipo(TipoLibro.valueOf(criterio.trim().toUpperCase()));
+        } catch (IllegalArgumentException e) {
+            // Criterio parcial (p. ej. "ficcion"): se mantiene la búsqueda en memoria por subcadena
+            return enMemoria.buscar(libros, criterio);
+        }
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        try {
+            return libroRepository.findByTipoAndIdGreaterThan(
+                TipoLibro.valueOf(criterio.trim().toUpperCase()), pagina.despuesDe(), pagina.pageable());
+        } catch (IllegalArgumentException e) {
+            return enMemoria.buscarPagina(libros, criterio, pagina);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.Pagina;
+import com.biblioteca.repository.LibroRepository;
+import reactor.core.publisher.Flux;
+
+// Búsqueda por título resuelta en la base de datos (WHERE titulo_clave LIKE ..., sin tildes ni mayúsculas)
+public class SqlSearchByTitle implements SearchStrategy {
+    private final LibroRepository libroRepository;
+
+    public SqlSearchByTitle(LibroRepository libroRepository) {
+        this.libroRepository = libroRepository;
+    }
+
+    @Override
+    public Flux<Libro> buscar(Flux<Libro> libros, String criterio) {
+        return libroRepository.buscarPorClaveTitulo(TextoBusqueda.patronLike(criterio));
+    }
+
+    @Override
+    public Flux<Libro> buscarPagina(Flux<Libro> libros, String criterio, Pagina pagina) {
+        return libroRepository.buscarPorClaveTituloDespuesDe(
+            TextoBusqueda.patronLike(criterio), pagina.despuesDe(), pagina.limite());
+    }
+}
@@ -0,0 +1,37 @@
+package com.biblioteca.strategy;
+
+import com.biblioteca.index.Normalizador;
+
+// Comparaciones de texto para los filtros en memoria, sin crear cadenas por fila
+public final class TextoBusqueda {
+
+    private TextoBusqueda() {
+    }
+
+    // Equivale a texto.toLowerCase().contains(patron.toLowerCase()) pero compara carácter a carácter
+    public static boolean contiene(String texto, String patron) {
+        if (texto == null) {
+            return false;
+        }
+        int longitud = patron.length();
+        int ultimoInicio = texto.length() - longitud;
+        for (int i = 0; i <= ultimoInicio; i++) {
+            if (texto.regionMatches(true, i, patron, 0, longitud)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Título y autor: el texto se compara por su clave normalizada (sin tildes), igual que los índices
+    public static boolean contieneClave(String texto, String clave) {
+        return texto != null && Normalizador.normalizar(texto).contains(clave);
+    }
+
+    // Patrón LIKE sobre las columnas *_clave; los comodines del usuario se buscan literalmente
+    // (\ es el escape por defecto de H2)
+    public static String patronLike(String criterio) {
+        String clave = Normalizador.normalizar(criterio);
+        return "%" + clave.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,44 @@
+package com.biblioteca.validator;
+
+import com.biblioteca.model.Libro;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor de validación sobre una cadena de validadores ya montada.
+ * La cadena (y sus patrones precompilados) se crea una vez y se reutiliza;
+ * los validadores no guardan estado, así que es seguro entre hilos.
+ */
+public class MotorValidacion {
+    private final Validador cadena;
+
+    public MotorValidacion(Validador cadena) {
+        this.cadena = cadena;
+    }
+
+    // Cadena estándar: título -> autor -> campos obligatorios
+    public static MotorValidacion porDefecto() {
+        ValidadorTitulo validadorTitulo = new ValidadorTitulo();
+        ValidadorAutor validadorAutor = new ValidadorAutor();
+        validadorTitulo.setSiguiente(validadorAutor);
+        validadorAutor.setSiguiente(new ValidadorCamposObligatorios());
+        return new MotorValidacion(validadorTitulo);
+    }
+
+    public ResultadoValidacion evaluar(Libro libro) {
+        return cadena.evaluar(libro);
+    }
+
+    // Un resultado por libro, en el mismo orden; los válidos comparten VALIDO
+    public List<ResultadoValidacion> validarTodos(List<Libro> libros) {
+        List<ResultadoValidacion> resultados = new ArrayList<>(libros.size());
+        for (Libro libro : libros) {
+            resultados.add(cadena.evaluar(libro));
+        }
+        return resultados;
+    }
+
+    public Validador getCadena() {
+        return cadena;
+    }
+}
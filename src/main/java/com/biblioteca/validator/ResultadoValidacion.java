@@ -0,0 +1,33 @@
+package com.biblioteca.validator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Resultado de evaluar la cadena completa de validadores.
+ * Los libros válidos comparten la instancia VALIDO, así que el caso normal
+ * no reserva memoria; solo un libro inválido crea la lista de violaciones.
+ */
+public final class ResultadoValidacion {
+    public static final ResultadoValidacion VALIDO = new ResultadoValidacion(Collections.emptyList());
+
+    private final List<Violacion> violaciones;
+
+    ResultadoValidacion(List<Violacion> violaciones) {
+        this.violaciones = Collections.unmodifiableList(violaciones);
+    }
+
+    public boolean isValido() {
+        return violaciones.isEmpty();
+    }
+
+    public List<Violacion> getViolaciones() {
+        return violaciones;
+    }
+
+    // Todos los mensajes separados por "; " (vacío si es válido)
+    public String getMensaje() {
+        return violaciones.stream().map(Violacion::mensaje).collect(Collectors.joining("; "));
+    }
+}
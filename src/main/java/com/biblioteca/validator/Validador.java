@@ -1,6 +1,8 @@
 package com.biblioteca.validator;
 
 import com.biblioteca.model.Libro;
+import java.util.ArrayList;
+import java.util.List;
 
 // Patrón Chain of Responsibility - Interfaz base para validadores
 public abstract class Validador {
@@ -10,14 +12,32 @@ public abstract class Validador {
         this.siguiente = validador;
     }
 
-    public void validar(Libro libro) throws ValidationException {
-        ejecutarValidacion(libro);
-        if (siguiente != null) {
-            siguiente.validar(libro);
+    // Recorre toda la cadena y devuelve todas las violaciones, sin lanzar excepciones
+    public ResultadoValidacion evaluar(Libro libro) {
+        List<Violacion> violaciones = null;
+        for (Validador eslabon = this; eslabon != null; eslabon = eslabon.siguiente) {
+            violaciones = eslabon.ejecutarValidacion(libro, violaciones);
         }
+        return violaciones == null ? ResultadoValidacion.VALIDO : new ResultadoValidacion(violaciones);
     }
 
-    protected abstract void ejecutarValidacion(Libro libro) throws ValidationException;
-}
+    // Compatibilidad: lanza la primera violación de la cadena
+    public void validar(Libro libro) throws ValidationException {
+        ResultadoValidacion resultado = evaluar(libro);
+        if (!resultado.isValido()) {
+            throw new ValidationException(resultado.getViolaciones().get(0).mensaje());
+        }
+    }
 
+    /**
+     * Cada eslabón añade sus violaciones y devuelve la lista; la recibe null
+     * mientras nadie haya fallado y solo se crea con la primera violación.
+     */
+    protected abstract List<Violacion> ejecutarValidacion(Libro libro, List<Violacion> violaciones);
 
+    protected List<Violacion> violacion(List<Violacion> violaciones, String mensaje) {
+        List<Violacion> resultado = violaciones != null ? violaciones : new ArrayList<>(2);
+        resultado.add(new Violacion(getClass().getSimpleName(), mensaje));
+        return resultado;
+    }
+}
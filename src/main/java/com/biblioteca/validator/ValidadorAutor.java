@@ -1,18 +1,43 @@
 package com.biblioteca.validator;
 
 import com.biblioteca.model.Libro;
+import java.util.List;
+import java.util.regex.Pattern;
 
 public class ValidadorAutor extends Validador {
+    // Regla original: letras (con tildes y ñ) y espacios
+    private static final Pattern SOLO_LETRAS = Pattern.compile("[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]");
+    // La clase de caracteres se precompila a una tabla Latin-1 al cargar la clase:
+    // comprobar un autor no compila expresiones ni crea un Matcher por llamada
+    private static final boolean[] PERMITIDOS = new boolean[256];
+
+    static {
+        for (char c = 0; c < PERMITIDOS.length; c++) {
+            PERMITIDOS[c] = SOLO_LETRAS.matcher(String.valueOf(c)).matches();
+        }
+    }
+
     @Override
-    protected void ejecutarValidacion(Libro libro) throws ValidationException {
+    protected List<Violacion> ejecutarValidacion(Libro libro, List<Violacion> violaciones) {
         if (libro.getAutor() == null || libro.getAutor().trim().isEmpty()) {
-            throw new ValidationException("El autor no puede estar vacío");
+            return violacion(violaciones, "El autor no puede estar vacío");
         }
         if (libro.getAutor().length() < 2) {
-            throw new ValidationException("El nombre del autor debe tener al menos 2 caracteres");
+            return violacion(violaciones, "El nombre del autor debe tener al menos 2 caracteres");
         }
-        if (!libro.getAutor().matches("^[a-zA-ZáéíóúÁÉÍÓÚñÑ\\s]+$")) {
-            throw new ValidationException("El nombre del autor solo debe contener letras y espacios");
+        if (!soloLetras(libro.getAutor())) {
+            return violacion(violaciones, "El nombre del autor solo debe contener letras y espacios");
+        }
+        return violaciones;
+    }
+
+    private static boolean soloLetras(String autor) {
+        for (int i = 0; i < autor.length(); i++) {
+            char c = autor.charAt(i);
+            if (c >= PERMITIDOS.length || !PERMITIDOS[c]) {
+                return false;
+            }
         }
+        return true;
     }
-}
\ No newline at end of file
+}
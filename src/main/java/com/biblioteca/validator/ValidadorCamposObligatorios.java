@@ -1,15 +1,17 @@
 package com.biblioteca.validator;
 
 import com.biblioteca.model.Libro;
+import java.util.List;
 
 public class ValidadorCamposObligatorios extends Validador {
     @Override
-    protected void ejecutarValidacion(Libro libro) throws ValidationException {
+    protected List<Violacion> ejecutarValidacion(Libro libro, List<Violacion> violaciones) {
         if (libro.getTipo() == null) {
-            throw new ValidationException("El tipo de libro es obligatorio");
+            violaciones = violacion(violaciones, "El tipo de libro es obligatorio");
         }
         if (libro.getFormato() == null) {
-            throw new ValidationException("El formato del libro es obligatorio");
+            violaciones = violacion(violaciones, "El formato del libro es obligatorio");
         }
+        return violaciones;
     }
-}
\ No newline at end of file
+}
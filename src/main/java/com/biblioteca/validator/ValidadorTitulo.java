@@ -1,15 +1,17 @@
 package com.biblioteca.validator;
 
 import com.biblioteca.model.Libro;
+import java.util.List;
 
 public class ValidadorTitulo extends Validador {
     @Override
-    protected void ejecutarValidacion(Libro libro) throws ValidationException {
+    protected List<Violacion> ejecutarValidacion(Libro libro, List<Violacion> violaciones) {
         if (libro.getTitulo() == null || libro.getTitulo().trim().isEmpty()) {
-            throw new ValidationException("El título no puede estar vacío");
+            return violacion(violaciones, "El título no puede estar vacío");
         }
         if (libro.getTitulo().length() < 2) {
-            throw new ValidationException("El título debe tener al menos 2 caracteres");
+            return violacion(violaciones, "El título debe tener al menos 2 caracteres");
         }
+        return violaciones;
     }
-}
\ No newline at end of file
+}
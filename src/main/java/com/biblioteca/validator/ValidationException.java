@@ -2,6 +2,7 @@ package com.biblioteca.validator;
 
 public class ValidationException extends Exception {
     public ValidationException(String mensaje) {
-        super(mensaje);
+        // Sin traza de pila: el mensaje basta y rellenarla era lo más caro de un rechazo
+        super(mensaje, null, false, false);
     }
-}
\ No newline at end of file
+}
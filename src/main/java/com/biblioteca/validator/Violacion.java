@@ -0,0 +1,5 @@
+package com.biblioteca.validator;
+
+// Regla incumplida: qué validador la detectó y con qué mensaje
+public record Violacion(String validador, String mensaje) {
+}
@@ -9,10 +9,36 @@ CREATE TABLE IF NOT EXISTS libros (
     descripcion TEXT
 );
 
--- Insertar datos de ejemplo
-INSERT INTO libros (titulo, autor, tipo, formato, estado, descripcion) VALUES
+-- Claves de búsqueda sin tildes ni mayúsculas (Normalizador.normalizar), calculadas por H2 en cada
+-- INSERT/UPDATE para que el LIKE de título y autor coincida con el índice de trigramas y la búsqueda difusa
+CREATE ALIAS IF NOT EXISTS NORMALIZAR DETERMINISTIC FOR "com.biblioteca.index.Normalizador.normalizar";
+ALTER TABLE libros ADD COLUMN IF NOT EXISTS titulo_clave VARCHAR(255) GENERATED ALWAYS AS NORMALIZAR(titulo);
+ALTER TABLE libros ADD COLUMN IF NOT EXISTS autor_clave VARCHAR(255) GENERATED ALWAYS AS NORMALIZAR(autor);
+
+-- Insertar datos de ejemplo (solo si la tabla está vacía, para no duplicarlos con H2 en fichero)
+INSERT INTO libros (titulo, autor, tipo, formato, estado, descripcion)
+SELECT * FROM (VALUES
 ('Cien años de soledad', 'Gabriel García Márquez', 'FICCION', 'FISICO', 'DISPONIBLE', 'Novela de realismo mágico'),
 ('El Quijote', 'Miguel de Cervantes', 'FICCION', 'FISICO', 'DISPONIBLE', 'Clásico de la literatura española'),
 ('Sapiens', 'Yuval Noah Harari', 'NO_FICCION', 'DIGITAL', 'DISPONIBLE', 'Historia de la humanidad'),
 ('1984', 'George Orwell', 'FICCION', 'DIGITAL', 'PRESTADO', 'Distopía clásica'),
-('El origen de las especies', 'Charles Darwin', 'NO_FICCION', 'FISICO', 'DISPONIBLE', 'Teoría de la evolución');
+('El origen de las especies', 'Charles Darwin', 'NO_FICCION', 'FISICO', 'DISPONIBLE', 'Teoría de la evolución')
+) AS ejemplos
+WHERE NOT EXISTS (SELECT 1 FROM libros);
+
+-- Índices para los filtros por igualdad de la búsqueda
+CREATE INDEX IF NOT EXISTS idx_libros_tipo ON libros (tipo);
+CREATE INDEX IF NOT EXISTS idx_libros_formato ON libros (formato);
+CREATE INDEX IF NOT EXISTS idx_libros_estado ON libros (estado);
+
+-- Historial de préstamos (solo inserciones)
+CREATE TABLE IF NOT EXISTS prestamos (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    libro_id BIGINT NOT NULL,
+    prestatario VARCHAR(255),
+    tipo VARCHAR(20) NOT NULL,
+    fecha TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_prestamos_libro ON prestamos (libro_id, fecha);
+CREATE INDEX IF NOT EXISTS idx_prestamos_prestatario ON prestamos (prestatario, fecha);
@@ -0,0 +1,158 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Snapshot mapeado: CRC de cabecera al abrir, CRC por registro antes de que termine la
+ * verificación completa y descarte del contenido cuando el CRC global no cuadra.
+ */
+class AlmacenSnapshotTest {
+
+    @TempDir
+    Path directorio;
+
+    private Path ruta;
+
+    @BeforeEach
+    void escribirSnapshot() throws IOException {
+        AlmacenMapa origen = new AlmacenMapa(new ContadoresCatalogo());
+        origen.guardar(1L, libro(1L, "Cien años de soledad", "Gabriel García Márquez", TipoLibro.FICCION));
+        origen.guardar(2L, libro(2L, "Sapiens", "Yuval Noah Harari", TipoLibro.NO_FICCION));
+        origen.guardar(3L, libro(3L, "El amor en los tiempos del cólera", "Gabriel García Márquez", TipoLibro.FICCION));
+        origen.actualizarEstado(3L, EstadoLibro.PRESTADO);
+        ruta = directorio.resolve("catalogo.snap");
+        assertEquals(3, EscritorSnapshot.escribir(ruta, origen, 4));
+    }
+
+    @Test
+    void unSnapshotIntactoSeSirveTalCual() throws IOException {
+        ContadoresCatalogo contadores = new ContadoresCatalogo();
+        AlmacenSnapshot snapshot = abrir(contadores);
+
+        assertTrue(snapshot.verificar());
+        assertTrue(snapshot.puedePersistirse());
+        assertEquals(4, snapshot.getSiguienteId());
+        assertEquals(3, snapshot.tamano());
+        Libro tercero = snapshot.obtener(3L);
+        assertEquals("El amor en los tiempos del cólera", tercero.getTitulo());
+        assertEquals("Gabriel García Márquez", tercero.getAutor());
+        assertEquals(EstadoLibro.PRESTADO, tercero.getEstado());
+
+        EstadisticasCatalogo estadisticas = contadores.instantanea();
+        assertEquals(3, estadisticas.total());
+        assertEquals(2L, estadisticas.porTipo().get(TipoLibro.FICCION));
+        assertEquals(1L, estadisticas.porEstado().get(EstadoLibro.PRESTADO));
+    }
+
+    @Test
+    void unTextoCorruptoSeDetectaAntesDeVerificar() throws IOException {
+        byte[] contenido = Files.readAllBytes(ruta);
+        // El primer texto escrito es el autor del libro 1, que el diccionario comparte con el 3
+        contenido[inicioTextos(contenido)] ^= 0x01;
+        Files.write(ruta, contenido);
+
+        AlmacenSnapshot snapshot = abrir(new ContadoresCatalogo());
+        assertNull(snapshot.obtener(1L));
+        assertEquals(1, snapshot.getRegistrosCorruptos());
+        assertFalse(snapshot.compareAndSetEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO));
+        assertFalse(snapshot.actualizarEstado(1L, EstadoLibro.PRESTADO));
+        assertNull(snapshot.obtener(3L));
+        // El resto de registros tiene su propio CRC y se sigue sirviendo
+        assertEquals("Sapiens", snapshot.obtener(2L).getTitulo());
+        assertEquals(1, snapshot.filtrar(null, null, null).size());
+
+        assertFalse(snapshot.verificar());
+        assertFalse(snapshot.puedePersistirse());
+    }
+
+    @Test
+    void unCodigoDeEnumCorruptoNoSeMaterializa() throws IOException {
+        byte[] contenido = Files.readAllBytes(ruta);
+        int registro2 = FormatoSnapshot.tamanoCabecera(ContadoresCatalogo.TAMANO) + FormatoSnapshot.TAMANO_REGISTRO;
+        contenido[registro2 + FormatoSnapshot.REG_TIPO] = 99;
+        Files.write(ruta, contenido);
+
+        AlmacenSnapshot snapshot = abrir(new ContadoresCatalogo());
+        assertNull(snapshot.obtener(2L));
+        assertFalse(snapshot.compareAndSetEstado(2L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO));
+        assertNotNull(snapshot.obtener(1L));
+        assertFalse(snapshot.verificar());
+    }
+
+    @Test
+    void alDescartarSoloQuedanLosLibrosNuevos() throws IOException {
+        byte[] contenido = Files.readAllBytes(ruta);
+        contenido[inicioTextos(contenido)] ^= 0x01;
+        Files.write(ruta, contenido);
+        ContadoresCatalogo contadores = new ContadoresCatalogo();
+        AlmacenSnapshot snapshot = abrir(contadores);
+        snapshot.guardar(4L, libro(4L, "Dune", "Frank Herbert", TipoLibro.FICCION));
+
+        assertFalse(snapshot.verificar());
+        snapshot.descartar();
+
+        assertTrue(snapshot.isDescartado());
+        assertTrue(snapshot.puedePersistirse());
+        assertNull(snapshot.obtener(2L));
+        assertEquals(1, snapshot.tamano());
+        assertEquals("Dune", snapshot.obtener(4L).getTitulo());
+        assertEquals(1, contadores.instantanea().total());
+        // El diario puede volver a dar de alta los IDs del snapshot descartado
+        snapshot.guardar(2L, libro(2L, "Sapiens", "Yuval Noah Harari", TipoLibro.NO_FICCION));
+        assertEquals(2, snapshot.tamano());
+    }
+
+    @Test
+    void unaCabeceraCorruptaImpideAbrirlo() throws IOException {
+        byte[] contenido = Files.readAllBytes(ruta);
+        contenido[FormatoSnapshot.POS_PRESENTES] ^= 0x01;
+        Files.write(ruta, contenido);
+
+        IOException error = assertThrows(IOException.class, () -> abrir(new ContadoresCatalogo()));
+        assertTrue(error.getMessage().contains("CRC de cabecera"));
+    }
+
+    @Test
+    void otraVersionDelFormatoNoSeAbre() throws IOException {
+        byte[] contenido = Files.readAllBytes(ruta);
+        ByteBuffer.wrap(contenido).putInt(4, FormatoSnapshot.VERSION - 1);
+        Files.write(ruta, contenido);
+
+        assertThrows(IOException.class, () -> abrir(new ContadoresCatalogo()));
+    }
+
+    private AlmacenSnapshot abrir(ContadoresCatalogo contadores) throws IOException {
+        return AlmacenSnapshot.abrir(ruta, new AlmacenMapa(contadores), contadores);
+    }
+
+    private static int inicioTextos(byte[] contenido) {
+        long registros = ByteBuffer.wrap(contenido).getLong(FormatoSnapshot.POS_REGISTROS);
+        return (int) (FormatoSnapshot.tamanoCabecera(ContadoresCatalogo.TAMANO) + registros * FormatoSnapshot.TAMANO_REGISTRO);
+    }
+
+    private static Libro libro(Long id, String titulo, String autor, TipoLibro tipo) {
+        return Libro.builder()
+            .id(id)
+            .titulo(titulo)
+            .autor(autor)
+            .tipo(tipo)
+            .formato(FormatoLibro.FISICO)
+            .estado(EstadoLibro.DISPONIBLE)
+            .descripcion("Descripción de " + titulo)
+            .build();
+    }
+}
@@ -0,0 +1,167 @@
+package com.biblioteca.config;
+
+import com.biblioteca.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reproducción del diario de escritura (WAL): lo que AlmacenConDiario aplicó en memoria
+ * debe reconstruirse igual al arrancar, y una cola rota solo corta su propio segmento.
+ */
+class DiarioEscrituraTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void reproducirReconstruyeAltasYCambiosDeEstado() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        AlmacenConDiario almacen = new AlmacenConDiario(new AlmacenMapa(new ContadoresCatalogo()), diario);
+        almacen.guardar(1L, libro(1L, "Cien años de soledad", "Gabriel García Márquez"));
+        almacen.guardar(2L, libro(2L, "El Quijote", "Miguel de Cervantes"));
+        assertTrue(almacen.compareAndSetEstado(1L, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO));
+        assertTrue(almacen.actualizarEstado(2L, EstadoLibro.PRESTADO));
+        assertTrue(almacen.compareAndSetEstado(2L, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE));
+        diario.cerrar();
+
+        AlmacenMapa recuperado = new AlmacenMapa(new ContadoresCatalogo());
+        assertEquals(5, reproducir(recuperado));
+
+        assertEquals(2, recuperado.tamano());
+        Libro primero = recuperado.obtener(1L);
+        assertEquals("Cien años de soledad", primero.getTitulo());
+        assertEquals("Gabriel García Márquez", primero.getAutor());
+        assertEquals(TipoLibro.FICCION, primero.getTipo());
+        assertEquals(FormatoLibro.FISICO, primero.getFormato());
+        assertEquals(EstadoLibro.PRESTADO, primero.getEstado());
+        assertEquals(EstadoLibro.DISPONIBLE, recuperado.obtener(2L).getEstado());
+    }
+
+    @Test
+    void losCambiosRechazadosNoLleganAlDiario() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        AlmacenConDiario almacen = new AlmacenConDiario(new AlmacenMapa(new ContadoresCatalogo()), diario);
+        almacen.guardar(1L, libro(1L, "Sapiens", "Yuval Noah Harari"));
+        assertFalse(almacen.compareAndSetEstado(1L, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE));
+        assertFalse(almacen.actualizarEstado(99L, EstadoLibro.PRESTADO));
+        diario.cerrar();
+
+        assertEquals(1, reproducir(new AlmacenMapa(new ContadoresCatalogo())));
+    }
+
+    @Test
+    void conElDiarioCerradoElCambioNoLlegaALaMemoria() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        AlmacenMapa memoria = new AlmacenMapa(new ContadoresCatalogo());
+        AlmacenConDiario almacen = new AlmacenConDiario(memoria, diario);
+        almacen.guardar(1L, libro(1L, "1984", "George Orwell"));
+        diario.cerrar();
+
+        assertThrows(RuntimeException.class, () -> almacen.guardar(2L, libro(2L, "Ensayo", "Autor")));
+        assertThrows(RuntimeException.class, () -> almacen.actualizarEstado(1L, EstadoLibro.PRESTADO));
+        assertNull(memoria.obtener(2L));
+        assertEquals(EstadoLibro.DISPONIBLE, memoria.obtener(1L).getEstado());
+    }
+
+    @Test
+    void unRegistroTruncadoCortaSoloElFinalDelSegmento() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        diario.esperar(diario.registrarAlta(1L, libro(1L, "El origen de las especies", "Charles Darwin")));
+        diario.esperar(diario.registrarEstado(1L, EstadoLibro.PRESTADO));
+        diario.cerrar();
+        Path segmento = unicoSegmento();
+        // Escritura a medias: la longitud promete más bytes de los que hay
+        Files.write(segmento, new byte[] {0, 0, 0, 64, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        // Al reabrir se empieza un segmento nuevo y lo posterior sigue reproduciéndose
+        DiarioEscritura reabierto = nuevoDiario();
+        reabierto.esperar(reabierto.registrarEstado(1L, EstadoLibro.DISPONIBLE));
+        reabierto.cerrar();
+
+        AlmacenMapa recuperado = new AlmacenMapa(new ContadoresCatalogo());
+        assertEquals(3, reproducir(recuperado));
+        assertEquals(EstadoLibro.DISPONIBLE, recuperado.obtener(1L).getEstado());
+    }
+
+    @Test
+    void unCrcIncorrectoIgnoraElRestoDelSegmento() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        diario.esperar(diario.registrarAlta(1L, libro(1L, "El Quijote", "Miguel de Cervantes")));
+        diario.esperar(diario.registrarEstado(1L, EstadoLibro.PRESTADO));
+        diario.cerrar();
+        Path segmento = unicoSegmento();
+        byte[] contenido = Files.readAllBytes(segmento);
+        // Último byte del segmento: el código de estado del segundo registro
+        contenido[contenido.length - 1] ^= 0x7F;
+        Files.write(segmento, contenido);
+
+        AlmacenMapa recuperado = new AlmacenMapa(new ContadoresCatalogo());
+        assertEquals(1, reproducir(recuperado));
+        assertEquals(EstadoLibro.DISPONIBLE, recuperado.obtener(1L).getEstado());
+    }
+
+    @Test
+    void trasRotarSePuedenBorrarLosSegmentosCompactados() throws IOException {
+        DiarioEscritura diario = nuevoDiario();
+        diario.esperar(diario.registrarAlta(1L, libro(1L, "Sapiens", "Yuval Noah Harari")));
+        int actual = diario.rotar();
+        diario.esperar(diario.registrarAlta(2L, libro(2L, "1984", "George Orwell")));
+        diario.eliminarAnteriores(actual);
+        diario.cerrar();
+
+        AlmacenMapa recuperado = new AlmacenMapa(new ContadoresCatalogo());
+        assertEquals(1, reproducir(recuperado));
+        assertNull(recuperado.obtener(1L));
+        assertEquals("1984", recuperado.obtener(2L).getTitulo());
+    }
+
+    private DiarioEscritura nuevoDiario() throws IOException {
+        return new DiarioEscritura(directorio, DurabilidadDiario.SINCRONA, 10, 64);
+    }
+
+    private long reproducir(AlmacenLibros destino) throws IOException {
+        return DiarioEscritura.reproducir(directorio, new DiarioEscritura.Aplicador() {
+            @Override
+            public void alta(Long id, Libro libro) {
+                destino.guardar(id, libro);
+            }
+
+            @Override
+            public void estado(Long id, EstadoLibro estado) {
+                destino.actualizarEstado(id, estado);
+            }
+        });
+    }
+
+    private Path unicoSegmento() throws IOException {
+        try (var ficheros = Files.list(directorio)) {
+            return ficheros.filter(ruta -> ruta.getFileName().toString().startsWith("wal-"))
+                .reduce((a, b) -> {
+                    throw new AssertionError("Se esperaba un solo segmento: " + a + ", " + b);
+                })
+                .orElseThrow();
+        }
+    }
+
+    private static Libro libro(Long id, String titulo, String autor) {
+        return Libro.builder()
+            .id(id)
+            .titulo(titulo)
+            .autor(autor)
+            .tipo(TipoLibro.FICCION)
+            .formato(FormatoLibro.FISICO)
+            .estado(EstadoLibro.DISPONIBLE)
+            .descripcion("Descripción de " + titulo)
+            .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Distancia de Levenshtein con cota y búsqueda en el árbol BK: la poda por la desigualdad
+ * triangular no debe perder ningún término que un recorrido completo encontraría.
+ */
+class BKTreeTest {
+
+    @Test
+    void distanciaExactaSinCota() {
+        assertEquals(3, BKTree.distancia("kitten", "sitting", Integer.MAX_VALUE));
+        assertEquals(0, BKTree.distancia("garcia", "garcia", Integer.MAX_VALUE));
+        assertEquals(6, BKTree.distancia("", "garcia", Integer.MAX_VALUE));
+        assertEquals(2, BKTree.distancia("markez", "marquez", Integer.MAX_VALUE));
+    }
+
+    @Test
+    void laCotaCortaElCalculoConCotaMasUno() {
+        // Por debajo o en la cota el resultado es exacto
+        assertEquals(3, BKTree.distancia("kitten", "sitting", 3));
+        assertEquals(2, BKTree.distancia("markez", "marquez", 2));
+        // Por encima se devuelve cota + 1, tanto por diferencia de longitud como por filas agotadas
+        assertEquals(2, BKTree.distancia("sol", "soledades", 1));
+        assertEquals(2, BKTree.distancia("kitten", "sitting", 1));
+        assertEquals(1, BKTree.distancia("abc", "xyz", 0));
+    }
+
+    @Test
+    void laDistanciaConCotaCoincideConLaExactaHastaLaCota() {
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            String a = palabra(aleatorio);
+            String b = palabra(aleatorio);
+            int exacta = BKTree.distancia(a, b, Integer.MAX_VALUE);
+            assertEquals(exacta, BKTree.distancia(b, a, Integer.MAX_VALUE), "Simetría: " + a + " / " + b);
+            for (int cota = 0; cota <= 3; cota++) {
+                assertEquals(Math.min(exacta, cota + 1), BKTree.distancia(a, b, cota), a + " / " + b + " cota " + cota);
+            }
+        }
+    }
+
+    @Test
+    void laBusquedaDevuelveLoMismoQueUnRecorridoCompleto() {
+        Random aleatorio = new Random(7);
+        BKTree arbol = new BKTree();
+        Set<String> vocabulario = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            String termino = palabra(aleatorio);
+            arbol.agregar(termino);
+            vocabulario.add(termino);
+        }
+        assertEquals(vocabulario.size(), arbol.size());
+
+        for (int i = 0; i < 100; i++) {
+            String buscado = palabra(aleatorio);
+            for (int maxima = 0; maxima <= 2; maxima++) {
+                Set<String> esperados = new HashSet<>();
+                for (String termino : vocabulario) {
+                    if (BKTree.distancia(termino, buscado, Integer.MAX_VALUE) <= maxima) {
+                        esperados.add(termino);
+                    }
+                }
+                Set<String> encontrados = new HashSet<>();
+                arbol.buscar(buscado, maxima, encontrados::add);
+                assertEquals(esperados, encontrados, "Búsqueda de " + buscado + " a distancia " + maxima);
+            }
+        }
+    }
+
+    @Test
+    void losDuplicadosNoCrecenElArbol() {
+        BKTree arbol = new BKTree();
+        arbol.agregar("garcia");
+        arbol.agregar("garcia");
+        arbol.agregar("marquez");
+        assertEquals(2, arbol.size());
+    }
+
+    @Test
+    void elIndiceDifusoToleraTildesYErratasPorPalabra() {
+        IndiceDifuso indice = new IndiceDifuso(2);
+        Libro cien = libro(1L, "Cien años de soledad", "Gabriel García Márquez");
+        Libro quijote = libro(2L, "El Quijote", "Miguel de Cervantes");
+        indice.indexar(cien);
+        indice.indexar(quijote);
+        indice.cargaCompletada();
+
+        assertEquals(Set.of(1L), indice.buscar("garsia markez"));
+        assertEquals(Set.of(2L), indice.buscar("quijotr"));
+        // Palabras de hasta dos letras deben coincidir exactas
+        assertEquals(Set.of(1L, 2L), indice.buscar("de"));
+        assertTrue(indice.buscar("dx").isEmpty());
+        // Cada palabra tiene que aparecer: "cervantes" no está en el libro 1
+        assertTrue(indice.buscar("garcia cervantes").isEmpty());
+        assertTrue(indice.coincide(cien, "garsia markez"));
+        assertFalse(indice.coincide(quijote, "garsia markez"));
+    }
+
+    @Test
+    void reindexarUnLibroRetiraSusTerminosAnteriores() {
+        IndiceDifuso indice = new IndiceDifuso(2);
+        indice.indexar(libro(1L, "Dune", "Frank Herbert"));
+        indice.indexar(libro(1L, "Sapiens", "Yuval Noah Harari"));
+
+        assertTrue(indice.buscar("herbert").isEmpty());
+        assertEquals(Set.of(1L), indice.buscar("harari"));
+    }
+
+    @Test
+    void laDistanciaMaximaConfiguradaLimitaLasErratas() {
+        IndiceDifuso indice = new IndiceDifuso(1);
+        indice.indexar(libro(1L, "Cien años de soledad", "Gabriel García Márquez"));
+
+        // "garsiaa" necesita dos cambios sobre "garcia"
+        assertTrue(indice.buscar("garsiaa").isEmpty());
+        assertEquals(Set.of(1L), indice.buscar("garsia"));
+    }
+
+    private static String palabra(Random aleatorio) {
+        List<String> silabas = List.of("ga", "ar", "ci", "a", "ma", "rq", "ue", "z", "so", "le", "d");
+        StringBuilder palabra = new StringBuilder();
+        int partes = 1 + aleatorio.nextInt(4);
+        for (int i = 0; i < partes; i++) {
+            palabra.append(silabas.get(aleatorio.nextInt(silabas.size())));
+        }
+        return palabra.toString();
+    }
+
+    private static Libro libro(Long id, String titulo, String autor) {
+        return Libro.builder()
+            .id(id)
+            .titulo(titulo)
+            .autor(autor)
+            .tipo(TipoLibro.FICCION)
+            .formato(FormatoLibro.FISICO)
+            .estado(EstadoLibro.DISPONIBLE)
+            .build();
+    }
+}
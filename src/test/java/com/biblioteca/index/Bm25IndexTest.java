@@ -0,0 +1,117 @@
+package com.biblioteca.index;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Top-K con montículo acotado y desplazamiento: cada página debe ser exactamente el tramo
+ * correspondiente del ranking completo.
+ */
+class Bm25IndexTest {
+
+    @Test
+    void elTerminoMasRaroYFrecuentePuntuaMas() {
+        Bm25Index indice = new Bm25Index();
+        indice.indexar(1L, List.of("cien", "anos", "de", "soledad"));
+        indice.indexar(2L, List.of("el", "amor", "en", "los", "tiempos", "de", "colera"));
+        indice.indexar(3L, List.of("soledad", "soledad", "de", "la", "ciudad"));
+
+        List<Bm25Index.Resultado> resultados = indice.buscar(List.of("soledad"), 10, 0);
+        assertEquals(List.of(3L, 1L), ids(resultados));
+        assertTrue(resultados.get(0).puntuacion() > resultados.get(1).puntuacion());
+        // "de" aparece en todos los documentos y aporta menos que un término raro
+        double soloDe = indice.buscar(List.of("de"), 1, 0).get(0).puntuacion();
+        assertTrue(soloDe < indice.buscar(List.of("colera"), 1, 0).get(0).puntuacion());
+    }
+
+    @Test
+    void elTopKCoincideConElRankingCompleto() {
+        Bm25Index indice = indiceAleatorio();
+        List<String> consulta = List.of("t1", "t3", "t7");
+        List<Bm25Index.Resultado> completo = indice.buscar(consulta, Integer.MAX_VALUE, 0);
+        assertTrue(completo.size() > 50, "La consulta debería coincidir con muchos documentos");
+
+        for (int k : new int[] {1, 5, 17, completo.size(), completo.size() + 10}) {
+            assertEquals(completo.subList(0, Math.min(k, completo.size())), indice.buscar(consulta, k, 0), "k = " + k);
+        }
+        for (int i = 1; i < completo.size(); i++) {
+            Bm25Index.Resultado anterior = completo.get(i - 1);
+            Bm25Index.Resultado actual = completo.get(i);
+            assertTrue(anterior.puntuacion() > actual.puntuacion()
+                || anterior.puntuacion() == actual.puntuacion() && anterior.id() < actual.id(),
+                "Orden incorrecto en la posición " + i);
+        }
+    }
+
+    @Test
+    void lasPaginasPorDesplazamientoRecorrenElRankingSinHuecosNiRepetidos() {
+        Bm25Index indice = indiceAleatorio();
+        List<String> consulta = List.of("t2", "t5");
+        List<Bm25Index.Resultado> completo = indice.buscar(consulta, Integer.MAX_VALUE, 0);
+
+        int tamanoPagina = 7;
+        List<Bm25Index.Resultado> paginado = new ArrayList<>();
+        for (int desplazamiento = 0; desplazamiento < completo.size(); desplazamiento += tamanoPagina) {
+            List<Bm25Index.Resultado> pagina = indice.buscar(consulta, tamanoPagina, desplazamiento);
+            assertEquals(Math.min(tamanoPagina, completo.size() - desplazamiento), pagina.size());
+            paginado.addAll(pagina);
+        }
+        assertEquals(completo, paginado);
+        assertTrue(indice.buscar(consulta, tamanoPagina, completo.size()).isEmpty());
+    }
+
+    @Test
+    void aIgualPuntuacionGanaElIdMasBajo() {
+        Bm25Index indice = new Bm25Index();
+        for (long id = 10; id >= 1; id--) {
+            indice.indexar(id, List.of("dune", "herbert"));
+        }
+        assertEquals(List.of(1L, 2L, 3L), ids(indice.buscar(List.of("dune"), 3, 0)));
+        assertEquals(List.of(4L, 5L, 6L), ids(indice.buscar(List.of("dune"), 3, 3)));
+    }
+
+    @Test
+    void reindexarRetiraLosTerminosAnteriores() {
+        Bm25Index indice = new Bm25Index();
+        indice.indexar(1L, List.of("dune"));
+        indice.indexar(2L, List.of("sapiens"));
+        indice.indexar(1L, List.of("sapiens", "harari"));
+
+        assertTrue(indice.buscar(List.of("dune"), 10, 0).isEmpty());
+        assertEquals(List.of(1L, 2L), ids(indice.buscar(List.of("sapiens", "harari"), 10, 0)));
+        assertEquals(2, indice.size());
+    }
+
+    @Test
+    void consultasVaciasOKNoPositivoNoDevuelvenNada() {
+        Bm25Index indice = new Bm25Index();
+        assertTrue(indice.buscar(List.of("dune"), 10, 0).isEmpty());
+        indice.indexar(1L, List.of("dune"));
+        assertTrue(indice.buscar(List.of(), 10, 0).isEmpty());
+        assertTrue(indice.buscar(List.of("dune"), 0, 0).isEmpty());
+        assertTrue(indice.buscar(List.of("inexistente"), 10, 0).isEmpty());
+    }
+
+    private static Bm25Index indiceAleatorio() {
+        Random aleatorio = new Random(3);
+        Bm25Index indice = new Bm25Index();
+        for (long id = 1; id <= 300; id++) {
+            List<String> terminos = new ArrayList<>();
+            int longitud = 2 + aleatorio.nextInt(12);
+            for (int i = 0; i < longitud; i++) {
+                terminos.add("t" + aleatorio.nextInt(20));
+            }
+            indice.indexar(id, terminos);
+        }
+        return indice;
+    }
+
+    private static List<Long> ids(List<Bm25Index.Resultado> resultados) {
+        return resultados.stream().map(Bm25Index.Resultado::id).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.biblioteca.index;
+
+import com.biblioteca.model.Sugerencia;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listas de mejores sugerencias por nodo: al bajar un peso o retirar una sugerencia de una
+ * lista llena debe subir la siguiente mejor del subárbol, que no estaba en la lista.
+ */
+class TrieAutocompletadoTest {
+
+    @Test
+    void completaPorPrefijoEnOrdenDePeso() {
+        TrieAutocompletado trie = new TrieAutocompletado(3);
+        alta(trie, "cien años de soledad", 5);
+        alta(trie, "cien mil", 9);
+        alta(trie, "ciudad y los perros", 7);
+        alta(trie, "dune", 100);
+
+        assertEquals(List.of("cien mil", "ciudad y los perros", "cien años de soledad"), textos(trie.completar("ci", 10)));
+        assertEquals(List.of("cien mil", "cien años de soledad"), textos(trie.completar("cie", 10)));
+        assertEquals(List.of("cien mil"), textos(trie.completar("ci", 1)));
+        assertTrue(trie.completar("x", 10).isEmpty());
+        assertTrue(trie.completar("", 10).isEmpty());
+    }
+
+    @Test
+    void alBajarElPesoSubeLaSiguienteDelSubarbol() {
+        TrieAutocompletado trie = new TrieAutocompletado(2);
+        alta(trie, "sapiens", 10);
+        alta(trie, "sahara", 8);
+        alta(trie, "salamandra", 5);
+        assertEquals(List.of("sapiens", "sahara"), textos(trie.completar("sa", 10)));
+
+        // "salamandra" no estaba en la lista llena de "sa": hay que recalcularla desde los terminales
+        alta(trie, "sapiens", 1);
+        assertEquals(List.of("sahara", "salamandra"), textos(trie.completar("sa", 10)));
+        assertEquals(List.of("sapiens"), textos(trie.completar("sap", 10)));
+        assertEquals(1, trie.completar("sap", 10).get(0).peso());
+    }
+
+    @Test
+    void alSubirElPesoSeReordenaSinRecalcular() {
+        TrieAutocompletado trie = new TrieAutocompletado(2);
+        alta(trie, "sapiens", 10);
+        alta(trie, "sahara", 8);
+        alta(trie, "salamandra", 5);
+
+        alta(trie, "salamandra", 20);
+        assertEquals(List.of("salamandra", "sapiens"), textos(trie.completar("sa", 10)));
+    }
+
+    @Test
+    void conPesoCeroLaSugerenciaSeRetira() {
+        TrieAutocompletado trie = new TrieAutocompletado(2);
+        alta(trie, "dune", 3);
+        alta(trie, "dublineses", 2);
+        alta(trie, "duelo", 1);
+
+        alta(trie, "dune", 0);
+        assertEquals(List.of("dublineses", "duelo"), textos(trie.completar("du", 10)));
+        assertTrue(trie.completar("dun", 10).isEmpty());
+        assertEquals(2, trie.size());
+    }
+
+    @Test
+    void unaSugerenciaConVariasClavesApareceUnaVez() {
+        TrieAutocompletado trie = new TrieAutocompletado(5);
+        // Título completo y cada palabra, como hace el índice de autocompletado
+        trie.actualizar("garcia", new Sugerencia("Gabriel García Márquez", "autor", 4),
+            List.of("gabriel garcia marquez", "garcia", "marquez"));
+        trie.actualizar("gaiman", new Sugerencia("Neil Gaiman", "autor", 2), List.of("neil gaiman", "gaiman"));
+
+        assertEquals(List.of("Gabriel García Márquez", "Neil Gaiman"), textos(trie.completar("ga", 10)));
+        assertEquals(List.of("Gabriel García Márquez"), textos(trie.completar("mar", 10)));
+    }
+
+    @Test
+    void trasMuchasActualizacionesCoincideConUnRecorridoCompleto() {
+        int porNodo = 4;
+        TrieAutocompletado trie = new TrieAutocompletado(porNodo);
+        Map<String, Long> pesos = new HashMap<>();
+        List<String> textos = List.of("sol", "soledad", "solaris", "sombra", "sonata", "sopa", "soplo",
+            "sal", "salto", "saga", "sapiens", "sara", "selva", "sed", "seda");
+        Random aleatorio = new Random(11);
+        for (int i = 0; i < 2000; i++) {
+            String texto = textos.get(aleatorio.nextInt(textos.size()));
+            long peso = aleatorio.nextInt(4) == 0 ? 0 : 1 + aleatorio.nextInt(50);
+            alta(trie, texto, peso);
+            if (peso == 0) {
+                pesos.remove(texto);
+            } else {
+                pesos.put(texto, peso);
+            }
+            for (String prefijo : List.of("s", "so", "sol", "sa", "se", "sop")) {
+                List<String> esperadas = pesos.entrySet().stream()
+                    .filter(entrada -> entrada.getKey().startsWith(prefijo))
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .limit(porNodo)
+                    .map(Map.Entry::getKey)
+                    .toList();
+                assertEquals(esperadas, textos(trie.completar(prefijo, porNodo)), "Prefijo " + prefijo + " tras " + i);
+            }
+        }
+        assertEquals(pesos.size(), trie.size());
+    }
+
+    private static void alta(TrieAutocompletado trie, String texto, long peso) {
+        trie.actualizar(texto, new Sugerencia(texto, "titulo", peso), List.of(texto));
+    }
+
+    private static List<String> textos(List<Sugerencia> sugerencias) {
+        return sugerencias.stream().map(Sugerencia::texto).toList();
+    }
+}
@@ -0,0 +1,63 @@
+package com.biblioteca.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de la prueba de carga, en forma clave=valor (-Dcarga.args="duracion=60 concurrencia=64"):
+ *   duracion       segundos medidos (30)
+ *   calentamiento  segundos previos que no se miden (5)
+ *   concurrencia   usuarios virtuales, cada uno con una petición en vuelo (32)
+ *   mezcla         peso de cada operación (ver MEZCLA_POR_DEFECTO)
+ *   precarga       libros importados antes de empezar (10000)
+ *   semilla        semilla de los datos precargados (42)
+ *   url            servidor ya arrancado; si se omite se usa la aplicación que levanta la prueba
+ *   salida         directorio del fichero de resultados JSON (target/carga)
+ */
+record ConfiguracionCarga(int duracion, int calentamiento, int concurrencia, Map<Operacion, Integer> mezcla,
+                          int precarga, long semilla, String url, String salida) {
+
+    static final String MEZCLA_POR_DEFECTO =
+        "agregar=4,agregar-abstract-factory=3,agregar-builder=3,buscar=40,todos=20,prestar=15,devolver=15";
+
+    static ConfiguracionCarga leer(String... args) {
+        Map<String, String> valores = new LinkedHashMap<>();
+        Arrays.stream(args)
+            .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+            .filter(arg -> !arg.isEmpty())
+            .forEach(arg -> {
+                int igual = arg.indexOf('=');
+                if (igual <= 0) {
+                    throw new IllegalArgumentException("Se esperaba clave=valor: " + arg);
+                }
+                valores.put(arg.substring(0, igual), arg.substring(igual + 1));
+            });
+
+        return new ConfiguracionCarga(
+            Integer.parseInt(valores.getOrDefault("duracion", "30")),
+            Integer.parseInt(valores.getOrDefault("calentamiento", "5")),
+            Integer.parseInt(valores.getOrDefault("concurrencia", "32")),
+            leerMezcla(valores.getOrDefault("mezcla", MEZCLA_POR_DEFECTO)),
+            Integer.parseInt(valores.getOrDefault("precarga", "10000")),
+            Long.parseLong(valores.getOrDefault("semilla", "42")),
+            valores.get("url"),
+            valores.getOrDefault("salida", "target/carga"));
+    }
+
+    // "buscar=40,todos=20" -> pesos por operación; las que no aparecen no se ejecutan
+    private static Map<Operacion, Integer> leerMezcla(String texto) {
+        Map<Operacion, Integer> mezcla = new LinkedHashMap<>();
+        for (String parte : texto.split(",")) {
+            String[] claveValor = parte.split("=");
+            int peso = Integer.parseInt(claveValor[1].trim());
+            if (peso > 0) {
+                mezcla.put(Operacion.porNombre(claveValor[0].trim()), peso);
+            }
+        }
+        if (mezcla.isEmpty()) {
+            throw new IllegalArgumentException("La mezcla no tiene ninguna operación con peso positivo");
+        }
+        return mezcla;
+    }
+}
@@ -0,0 +1,321 @@
+package com.biblioteca.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Generador de carga HTTP con latencias en HdrHistogram (lo lanza PruebaCargaTest).
+ * Precarga libros por /importar y lanza "concurrencia" usuarios virtuales en bucle cerrado: cada uno
+ * elige una operación según la mezcla, espera la respuesta y repite hasta agotar el tiempo.
+ * Imprime rendimiento y percentiles por operación y guarda el mismo informe en JSON en "salida",
+ * para comparar versiones del servicio.
+ */
+class GeneradorCarga {
+    private static final String[] PALABRAS = {
+        "historia", "sombra", "viento", "ciudad", "noche", "mar", "tiempo", "jardín",
+        "memoria", "guerra", "silencio", "camino", "fuego", "río", "montaña", "espejo"
+    };
+    private static final String[] NOMBRES = {
+        "Gabriel", "Isabel", "Jorge", "Laura", "Mario", "Elena", "Julio", "Carmen"
+    };
+    private static final String[] APELLIDOS = {
+        "García", "Allende", "Borges", "Esquivel", "Vargas", "Poniatowska", "Cortázar", "Laforet"
+    };
+    // Pares tipoBusqueda / criterio para /buscar
+    private static final String[][] BUSQUEDAS = {
+        {"titulo", "historia"}, {"titulo", "viento"}, {"titulo", "mar"},
+        {"autor", "García"}, {"autor", "Borges"},
+        {"tipo", "FICCION"}, {"formato", "DIGITAL"}, {"estado", "DISPONIBLE"}
+    };
+    private static final String[] TIPOS = {"FICCION", "NO_FICCION"};
+    private static final String[] FORMATOS = {"FISICO", "DIGITAL"};
+
+    private final ConfiguracionCarga configuracion;
+    private final WebClient cliente;
+    private final Operacion[] ruleta;
+    private final Map<Operacion, Medicion> mediciones = new EnumMap<>(Operacion.class);
+    private final Medicion total = new Medicion();
+    private final AtomicLong ultimoId = new AtomicLong();
+    private final AtomicLong altas = new AtomicLong();
+    private final Queue<Long> prestados = new ConcurrentLinkedQueue<>();
+    private volatile long inicioMedicion;
+
+    GeneradorCarga(ConfiguracionCarga configuracion, String url) {
+        this.configuracion = configuracion;
+        ConnectionProvider conexiones = ConnectionProvider.builder("carga")
+            .maxConnections(configuracion.concurrencia())
+            .pendingAcquireMaxCount(-1)
+            .build();
+        this.cliente = WebClient.builder()
+            .baseUrl(url)
+            .clientConnector(new ReactorClientHttpConnector(
+                HttpClient.create(conexiones).responseTimeout(Duration.ofSeconds(30))))
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+            .build();
+
+        // Cada operación ocupa tantas casillas como su peso: elegir es un acceso aleatorio al array
+        this.ruleta = configuracion.mezcla().entrySet().stream()
+            .flatMap(peso -> Stream.generate(peso::getKey).limit(peso.getValue()))
+            .toArray(Operacion[]::new);
+        configuracion.mezcla().keySet().forEach(operacion -> mediciones.put(operacion, new Medicion()));
+    }
+
+    // Devuelve el informe para que la prueba pueda comprobarlo
+    Map<String, Object> ejecutar() throws Exception {
+        precargar();
+        ultimoId.set(buscarUltimoId());
+        System.out.printf("Carga: %d usuarios, %d s de calentamiento + %d s medidos, %d libros en el catálogo%n",
+            configuracion.concurrencia(), configuracion.calentamiento(), configuracion.duracion(), ultimoId.get());
+
+        long inicio = System.nanoTime();
+        inicioMedicion = inicio + Duration.ofSeconds(configuracion.calentamiento()).toNanos();
+        long fin = inicioMedicion + Duration.ofSeconds(configuracion.duracion()).toNanos();
+
+        Flux.range(0, configuracion.concurrencia())
+            .flatMap(usuario -> Mono.defer(this::peticion).repeat(() -> System.nanoTime() < fin),
+                configuracion.concurrencia())
+            .blockLast();
+
+        double segundos = (System.nanoTime() - inicioMedicion) / 1e9;
+        Map<String, Object> informe = informe(segundos);
+        imprimir(informe);
+        guardar(informe);
+        return informe;
+    }
+
+    private void precargar() {
+        if (configuracion.precarga() <= 0) {
+            return;
+        }
+        Random random = new Random(configuracion.semilla());
+        Flux<String> lineas = Flux.range(0, configuracion.precarga())
+            .map(i -> String.format("{\"titulo\":\"El %s de la %s %d\",\"autor\":\"%s %s\",\"tipo\":\"%s\",\"formato\":\"%s\"}%n",
+                PALABRAS[random.nextInt(PALABRAS.length)], PALABRAS[random.nextInt(PALABRAS.length)], i,
+                NOMBRES[random.nextInt(NOMBRES.length)], APELLIDOS[random.nextInt(APELLIDOS.length)],
+                TIPOS[random.nextInt(TIPOS.length)], FORMATOS[random.nextInt(FORMATOS.length)]));
+        JsonNode resumen = cliente.post()
+            .uri("/api/libros/importar")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(lineas, String.class)
+            .retrieve()
+            .bodyToMono(JsonNode.class)
+            .block();
+        System.out.println("✓ Precarga: " + resumen.path("aceptados").asLong() + " libros importados");
+    }
+
+    // Recorre el listado por cursor para conocer el mayor id (también con un servidor externo)
+    private long buscarUltimoId() {
+        long despuesDe = 0;
+        while (true) {
+            long cursor = despuesDe;
+            JsonNode pagina = cliente.get()
+                .uri(uri -> uri.path("/api/libros/todos")
+                    .queryParam("fields", "id")
+                    .queryParam("limit", 1000)
+                    .queryParam("after", cursor)
+                    .build())
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .block();
+            if (pagina == null || pagina.isEmpty()) {
+                return despuesDe;
+            }
+            despuesDe = pagina.get(pagina.size() - 1).path("id").asLong();
+        }
+    }
+
+    private Mono<Void> peticion() {
+        Operacion operacion = ruleta[ThreadLocalRandom.current().nextInt(ruleta.length)];
+        long inicio = System.nanoTime();
+        return enviar(operacion)
+            .doOnNext(exito -> registrar(operacion, inicio, exito))
+            .onErrorResume(error -> {
+                if (inicio >= inicioMedicion) {
+                    mediciones.get(operacion).errores.increment();
+                    total.errores.increment();
+                }
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    private Mono<Boolean> enviar(Operacion operacion) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1 + random.nextLong(Math.max(1, ultimoId.get()));
+        return switch (operacion) {
+            case AGREGAR -> agregar("/api/libros/agregar");
+            case AGREGAR_ABSTRACT_FACTORY -> agregar("/api/libros/agregar/abstract-factory");
+            case AGREGAR_BUILDER -> agregar("/api/libros/agregar/builder");
+            case BUSCAR -> {
+                String[] busqueda = BUSQUEDAS[random.nextInt(BUSQUEDAS.length)];
+                yield cliente.get()
+                    .uri(uri -> uri.path("/api/libros/buscar")
+                        .queryParam("tipoBusqueda", busqueda[0])
+                        .queryParam("criterio", busqueda[1])
+                        .build())
+                    .exchangeToMono(GeneradorCarga::descartar);
+            }
+            case TODOS -> cliente.get()
+                .uri(uri -> uri.path("/api/libros/todos")
+                    .queryParam("limit", 50)
+                    .queryParam("after", id - 1)
+                    .build())
+                .exchangeToMono(GeneradorCarga::descartar);
+            case PRESTAR -> cliente.post()
+                .uri(uri -> uri.path("/api/libros/{id}/prestar").queryParam("prestatario", "Lector Carga").build(id))
+                .exchangeToMono(GeneradorCarga::descartar)
+                .doOnNext(exito -> {
+                    if (exito) {
+                        prestados.offer(id);
+                    }
+                });
+            case DEVOLVER -> {
+                // Se devuelven preferentemente libros que esta misma prueba prestó
+                Long prestado = prestados.poll();
+                yield cliente.post()
+                    .uri("/api/libros/{id}/devolver", prestado != null ? prestado : id)
+                    .exchangeToMono(GeneradorCarga::descartar);
+            }
+        };
+    }
+
+    // Las altas amplían el rango de ids que usan préstamos, devoluciones y listados
+    private Mono<Boolean> agregar(String ruta) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String titulo = "Libro de carga " + altas.incrementAndGet();
+        return cliente.post()
+            .uri(uri -> uri.path(ruta)
+                .queryParam("titulo", titulo)
+                .queryParam("autor", NOMBRES[random.nextInt(NOMBRES.length)] + " " + APELLIDOS[random.nextInt(APELLIDOS.length)])
+                .queryParam("tipo", TIPOS[random.nextInt(TIPOS.length)])
+                .queryParam("formato", FORMATOS[random.nextInt(FORMATOS.length)])
+                .build())
+            .exchangeToMono(respuesta -> respuesta.statusCode().is2xxSuccessful()
+                ? respuesta.bodyToMono(JsonNode.class)
+                    .doOnNext(libro -> ultimoId.accumulateAndGet(libro.path("id").asLong(), Math::max))
+                    .thenReturn(true)
+                : respuesta.releaseBody().thenReturn(false));
+    }
+
+    // Se lee el cuerpo entero (como haría un cliente real) sin deserializarlo
+    private static Mono<Boolean> descartar(ClientResponse respuesta) {
+        return respuesta.releaseBody().thenReturn(respuesta.statusCode().is2xxSuccessful());
+    }
+
+    // Las peticiones que empezaron durante el calentamiento no cuentan
+    private void registrar(Operacion operacion, long inicio, boolean exito) {
+        if (inicio < inicioMedicion) {
+            return;
+        }
+        long microsegundos = (System.nanoTime() - inicio) / 1_000;
+        Medicion medicion = mediciones.get(operacion);
+        medicion.latencias.recordValue(microsegundos);
+        total.latencias.recordValue(microsegundos);
+        if (!exito) {
+            medicion.rechazos.increment();
+            total.rechazos.increment();
+        }
+    }
+
+    private Map<String, Object> informe(double segundos) {
+        Map<String, Object> operaciones = new LinkedHashMap<>();
+        mediciones.forEach((operacion, medicion) -> operaciones.put(operacion.getNombre(), medicion.resumen(segundos)));
+
+        Map<String, Object> parametros = new LinkedHashMap<>();
+        parametros.put("duracion", configuracion.duracion());
+        parametros.put("calentamiento", configuracion.calentamiento());
+        parametros.put("concurrencia", configuracion.concurrencia());
+        Map<String, Integer> mezcla = new LinkedHashMap<>();
+        configuracion.mezcla().forEach((operacion, peso) -> mezcla.put(operacion.getNombre(), peso));
+        parametros.put("mezcla", mezcla);
+        parametros.put("precarga", configuracion.precarga());
+        parametros.put("semilla", configuracion.semilla());
+
+        Map<String, Object> informe = new LinkedHashMap<>();
+        informe.put("fecha", LocalDateTime.now().toString());
+        informe.put("java", System.getProperty("java.version"));
+        informe.put("procesadores", Runtime.getRuntime().availableProcessors());
+        informe.put("servidor", configuracion.url() == null ? "embebido" : configuracion.url());
+        informe.put("parametros", parametros);
+        informe.put("total", total.resumen(segundos));
+        informe.put("operaciones", operaciones);
+        return informe;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void imprimir(Map<String, Object> informe) {
+        System.out.printf("%n%-26s %10s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+            "Operación", "Peticiones", "Rechazos", "Errores", "Pet/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "máx ms");
+        Map<String, Object> operaciones = (Map<String, Object>) informe.get("operaciones");
+        operaciones.forEach((nombre, resumen) -> imprimirFila(nombre, (Map<String, Object>) resumen));
+        imprimirFila("TOTAL", (Map<String, Object>) informe.get("total"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void imprimirFila(String nombre, Map<String, Object> resumen) {
+        Map<String, Double> latencia = (Map<String, Double>) resumen.get("latenciaMs");
+        System.out.printf("%-26s %10d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", nombre,
+            resumen.get("peticiones"), resumen.get("rechazos"), resumen.get("errores"), resumen.get("porSegundo"),
+            latencia.get("p50"), latencia.get("p95"), latencia.get("p99"), latencia.get("p999"), latencia.get("max"));
+    }
+
+    private void guardar(Map<String, Object> informe) throws Exception {
+        Path directorio = Path.of(configuracion.salida());
+        Files.createDirectories(directorio);
+        Path fichero = directorio.resolve("resultado-"
+            + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(fichero.toFile(), informe);
+        System.out.println("\n✓ Resultados guardados en " + fichero);
+    }
+
+    // Latencias en microsegundos (3 cifras significativas) y contadores de una operación
+    private static final class Medicion {
+        private final Recorder latencias = new Recorder(3);
+        private final LongAdder rechazos = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+
+        Map<String, Object> resumen(double segundos) {
+            Histogram histograma = latencias.getIntervalHistogram();
+            Map<String, Double> latencia = new LinkedHashMap<>();
+            latencia.put("media", histograma.getMean() / 1_000);
+            latencia.put("p50", histograma.getValueAtPercentile(50) / 1_000.0);
+            latencia.put("p95", histograma.getValueAtPercentile(95) / 1_000.0);
+            latencia.put("p99", histograma.getValueAtPercentile(99) / 1_000.0);
+            latencia.put("p999", histograma.getValueAtPercentile(99.9) / 1_000.0);
+            latencia.put("max", histograma.getMaxValue() / 1_000.0);
+
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("peticiones", histograma.getTotalCount());
+            resumen.put("rechazos", rechazos.sum());
+            resumen.put("errores", errores.sum());
+            resumen.put("porSegundo", histograma.getTotalCount() / segundos);
+            resumen.put("latenciaMs", latencia);
+            return resumen;
+        }
+    }
+}
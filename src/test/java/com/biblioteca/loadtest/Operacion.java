@@ -0,0 +1,31 @@
+package com.biblioteca.loadtest;
+
+// Operaciones HTTP que puede incluir la mezcla, con el nombre que se usa en la configuración y el informe
+enum Operacion {
+    AGREGAR("agregar"),
+    AGREGAR_ABSTRACT_FACTORY("agregar-abstract-factory"),
+    AGREGAR_BUILDER("agregar-builder"),
+    BUSCAR("buscar"),
+    TODOS("todos"),
+    PRESTAR("prestar"),
+    DEVOLVER("devolver");
+
+    private final String nombre;
+
+    Operacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    String getNombre() {
+        return nombre;
+    }
+
+    static Operacion porNombre(String nombre) {
+        for (Operacion operacion : values()) {
+            if (operacion.nombre.equals(nombre)) {
+                return operacion;
+            }
+        }
+        throw new IllegalArgumentException("Operación desconocida: " + nombre);
+    }
+}
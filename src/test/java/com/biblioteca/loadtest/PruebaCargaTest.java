@@ -0,0 +1,39 @@
+package com.biblioteca.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga HTTP contra la aplicación embebida en un puerto libre (H2 en memoria, log SQL desactivado).
+ * Lleva la etiqueta "carga" y queda fuera de "mvn test"; se lanza con el perfil loadtest:
+ *   mvn -Ploadtest test -Dcarga.args="duracion=60 concurrencia=64 mezcla=buscar=70,todos=30"
+ */
+@Tag("carga")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "logging.level.org.springframework.r2dbc=WARN",
+    "logging.level.io.r2dbc.h2=WARN"
+})
+class PruebaCargaTest {
+
+    @LocalServerPort
+    private int puerto;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mezclaDeOperaciones() throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.leer(System.getProperty("carga.args", ""));
+        String url = configuracion.url() != null ? configuracion.url() : "http://localhost:" + puerto;
+
+        Map<String, Object> total = (Map<String, Object>) new GeneradorCarga(configuracion, url).ejecutar().get("total");
+
+        // Los rechazos (préstamo de un libro ya prestado...) son respuestas válidas; los errores de red no
+        assertTrue((Long) total.get("peticiones") > 0, "No se completó ninguna petición");
+        assertEquals(0L, total.get("errores"), "Peticiones sin respuesta durante la carga");
+    }
+}
@@ -0,0 +1,137 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.ModoLote;
+import com.biblioteca.model.ResultadoLote;
+import com.biblioteca.model.TipoLibro;
+import com.biblioteca.repository.LibroRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
+import reactor.test.StepVerifier;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Lotes de préstamo en una transacción: con TODO_O_NADA un rechazo o un conflicto en el UPDATE
+ * deja todos los libros como estaban; con MEJOR_ESFUERZO se aplican los válidos.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "logging.level.org.springframework.r2dbc=WARN",
+    "logging.level.io.r2dbc.h2=WARN"
+})
+class LibroServiceLoteTest {
+
+    @Autowired
+    private LibroService libroService;
+
+    @SpyBean
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Test
+    void todoONadaConUnLibroRechazadoNoAplicaNinguno() {
+        Long primero = nuevoLibro("Niebla");
+        Long prestado = nuevoLibro("Marianela");
+        Long tercero = nuevoLibro("Fortunata y Jacinta");
+        libroService.prestarLibro(prestado, "ana").block();
+
+        ResultadoLote resultado = libroService.prestarLote(List.of(primero, prestado, tercero), "luis", ModoLote.TODO_O_NADA).block();
+
+        assertFalse(resultado.aplicado());
+        assertEquals(0, resultado.aplicados());
+        assertEquals(3, resultado.rechazados());
+        assertEquals("No aplicado: el lote tiene libros rechazados", resultado.libros().get(0).mensaje());
+        assertEquals("El libro no esta disponible para prestamo", resultado.libros().get(1).mensaje());
+        assertEquals(List.of(EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO, EstadoLibro.DISPONIBLE),
+            estadosEnBaseDeDatos(primero, prestado, tercero));
+    }
+
+    @Test
+    void unLibroRepetidoOInexistenteTambienRechazaElLote() {
+        Long id = nuevoLibro("Tirano Banderas");
+
+        ResultadoLote repetido = libroService.prestarLote(List.of(id, id), "ana", ModoLote.TODO_O_NADA).block();
+        assertFalse(repetido.aplicado());
+        assertEquals("Libro repetido en el lote", repetido.libros().get(1).mensaje());
+
+        ResultadoLote inexistente = libroService.prestarLote(List.of(id, Long.MAX_VALUE), "ana", ModoLote.TODO_O_NADA).block();
+        assertFalse(inexistente.aplicado());
+        assertEquals("Libro no encontrado", inexistente.libros().get(1).mensaje());
+        assertEquals(List.of(EstadoLibro.DISPONIBLE), estadosEnBaseDeDatos(id));
+    }
+
+    @Test
+    void mejorEsfuerzoAplicaLosValidos() {
+        Long primero = nuevoLibro("Luces de bohemia");
+        Long prestado = nuevoLibro("La Regenta");
+        libroService.prestarLibro(prestado, "ana").block();
+
+        ResultadoLote resultado = libroService.prestarLote(List.of(primero, prestado), "luis", ModoLote.MEJOR_ESFUERZO).block();
+
+        assertTrue(resultado.aplicado());
+        assertEquals(1, resultado.aplicados());
+        assertEquals(1, resultado.rechazados());
+        assertTrue(resultado.libros().get(0).exito());
+        assertEquals(List.of(EstadoLibro.PRESTADO, EstadoLibro.PRESTADO), estadosEnBaseDeDatos(primero, prestado));
+
+        ResultadoLote devolucion = libroService.devolverLote(List.of(primero, prestado), ModoLote.TODO_O_NADA).block();
+        assertEquals(2, devolucion.aplicados());
+        assertEquals(List.of(EstadoLibro.DISPONIBLE, EstadoLibro.DISPONIBLE), estadosEnBaseDeDatos(primero, prestado));
+    }
+
+    @Test
+    void unConflictoEnElUpdateRevierteLaTransaccion() {
+        Long primero = nuevoLibro("San Manuel Bueno");
+        Long segundo = nuevoLibro("Nada");
+        // El UPDATE se ejecuta de verdad (dentro de la transacción del lote) pero informa de una fila
+        // menos, como si otra transacción se hubiera adelantado con uno de los libros
+        doAnswer(invocacion -> {
+            Collection<Long> ids = invocacion.getArgument(0);
+            EstadoLibro nuevo = invocacion.getArgument(2);
+            return r2dbcEntityTemplate.update(Libro.class)
+                .matching(Query.query(Criteria.where("id").in(ids)))
+                .apply(Update.update("estado", nuevo.name()))
+                .map(filas -> filas.intValue() - 1);
+        }).when(libroRepository).actualizarEstadoLote(any(), any(), any());
+
+        StepVerifier.create(libroService.prestarLote(List.of(primero, segundo), "ana", ModoLote.TODO_O_NADA))
+            .expectErrorMessage("Conflicto al actualizar el lote: 1 de 2 libros")
+            .verify();
+        assertEquals(List.of(EstadoLibro.DISPONIBLE, EstadoLibro.DISPONIBLE), estadosEnBaseDeDatos(primero, segundo));
+    }
+
+    private Long nuevoLibro(String titulo) {
+        return libroRepository.save(Libro.builder()
+                .titulo(titulo)
+                .autor("Autor de prueba")
+                .tipo(TipoLibro.FICCION)
+                .formato(FormatoLibro.FISICO)
+                .estado(EstadoLibro.DISPONIBLE)
+                .descripcion("Libro de prueba")
+                .build())
+            .map(Libro::getId)
+            .block();
+    }
+
+    private List<EstadoLibro> estadosEnBaseDeDatos(Long... ids) {
+        return List.of(ids).stream()
+            .map(id -> libroRepository.findById(id).map(Libro::getEstado).block())
+            .toList();
+    }
+}
@@ -0,0 +1,119 @@
+package com.biblioteca.service;
+
+import com.biblioteca.model.EstadoLibro;
+import com.biblioteca.model.FormatoLibro;
+import com.biblioteca.model.Libro;
+import com.biblioteca.model.TipoLibro;
+import com.biblioteca.repository.LibroCache;
+import com.biblioteca.repository.LibroRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Préstamo y devolución con UPDATE condicional (WHERE estado = esperado) contra H2 en memoria:
+ * una copia cacheada desactualizada o una petición simultánea no pueden aplicar la transición dos veces.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "logging.level.org.springframework.r2dbc=WARN",
+    "logging.level.io.r2dbc.h2=WARN"
+})
+class LibroServicePrestamoTest {
+
+    @Autowired
+    private LibroService libroService;
+
+    @Autowired
+    private LibroRepository libroRepository;
+
+    @Autowired
+    private LibroCache libroCache;
+
+    @Test
+    void prestarYDevolverCambianElEstadoEnLaBaseDeDatos() {
+        Long id = nuevoLibro("Rayuela");
+
+        StepVerifier.create(libroService.prestarLibro(id, "ana"))
+            .expectNext("Libro prestado exitosamente a ana")
+            .verifyComplete();
+        assertEquals(EstadoLibro.PRESTADO, estadoEnBaseDeDatos(id));
+
+        StepVerifier.create(libroService.devolverLibro(id))
+            .expectNext("Libro devuelto exitosamente")
+            .verifyComplete();
+        assertEquals(EstadoLibro.DISPONIBLE, estadoEnBaseDeDatos(id));
+    }
+
+    @Test
+    void lasTransicionesDesdeUnEstadoDistintoSeRechazan() {
+        Long id = nuevoLibro("Pedro Páramo");
+
+        StepVerifier.create(libroService.devolverLibro(id))
+            .expectErrorMessage("El libro no esta prestado")
+            .verify();
+        libroService.prestarLibro(id, "ana").block();
+        StepVerifier.create(libroService.prestarLibro(id, "luis"))
+            .expectErrorMessage("El libro no esta disponible para prestamo")
+            .verify();
+        assertEquals(EstadoLibro.PRESTADO, estadoEnBaseDeDatos(id));
+        StepVerifier.create(libroService.prestarLibro(Long.MAX_VALUE, "ana"))
+            .expectErrorMessage("Libro no encontrado")
+            .verify();
+    }
+
+    @Test
+    void unaCopiaCacheadaDesactualizadaNoPermitePrestarDosVeces() {
+        Long id = nuevoLibro("La ciudad y los perros");
+        // La caché guarda el libro DISPONIBLE y otra instancia lo presta directamente en la base de datos
+        assertEquals(EstadoLibro.DISPONIBLE, libroCache.buscarPorId(id).block().getEstado());
+        assertEquals(1, libroRepository.actualizarEstadoSiCoincide(id, EstadoLibro.DISPONIBLE, EstadoLibro.PRESTADO).block());
+
+        StepVerifier.create(libroService.prestarLibro(id, "ana"))
+            .expectErrorMessage("El libro no esta disponible para prestamo")
+            .verify();
+        // El fallo invalida la entrada: la siguiente lectura ya ve el estado real
+        assertEquals(EstadoLibro.PRESTADO, libroCache.buscarPorId(id).block().getEstado());
+    }
+
+    @Test
+    void dePrestamosSimultaneosDelMismoLibroSoloTriunfaUno() {
+        Long id = nuevoLibro("Ficciones");
+        // Caché caliente: todas las peticiones leen la misma copia DISPONIBLE
+        libroCache.buscarPorId(id).block();
+
+        List<Boolean> resultados = Flux.range(0, 16)
+            .flatMap(i -> Mono.defer(() -> libroService.prestarLibro(id, "lector-" + i))
+                .map(mensaje -> true)
+                .onErrorReturn(false)
+                .subscribeOn(Schedulers.parallel()))
+            .collectList()
+            .block();
+
+        assertEquals(1, resultados.stream().filter(Boolean::booleanValue).count());
+        assertEquals(EstadoLibro.PRESTADO, estadoEnBaseDeDatos(id));
+    }
+
+    private Long nuevoLibro(String titulo) {
+        return libroRepository.save(Libro.builder()
+                .titulo(titulo)
+                .autor("Autor de prueba")
+                .tipo(TipoLibro.FICCION)
+                .formato(FormatoLibro.FISICO)
+                .estado(EstadoLibro.DISPONIBLE)
+                .descripcion("Libro de prueba")
+                .build())
+            .map(Libro::getId)
+            .block();
+    }
+
+    private EstadoLibro estadoEnBaseDeDatos(Long id) {
+        return libroRepository.findById(id).map(Libro::getEstado).block();
+    }
+}